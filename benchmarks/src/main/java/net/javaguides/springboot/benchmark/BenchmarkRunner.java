@@ -0,0 +1,22 @@
+package net.javaguides.springboot.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// IDEから全ベンチマークを実行するためのエントリーポイント
+// GCプロファイラを有効にし、ops/s・p99に加えてアロケーションレート(gc.alloc.rate.norm)を出力する
+// 引数でベンチマーク名の正規表現を指定できる（例: EmployeeServiceBenchmark）
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(args.length > 0 ? args[0] : "net.javaguides.springboot.benchmark.*")
+      .addProfiler(GCProfiler.class)
+      .build();
+
+    new Runner(options).run();
+  }
+}
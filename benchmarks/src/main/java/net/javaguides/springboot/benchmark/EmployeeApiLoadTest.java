@@ -0,0 +1,95 @@
+package net.javaguides.springboot.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 起動済みのアプリケーションに対して同時接続数を指定してGETリクエストを送り続ける負荷テスト
+// プラットフォームスレッドモードと仮想スレッドモード(--spring.profiles.active=virtual-threads)で
+// それぞれアプリケーションを起動し、同じ条件でスループットとレイテンシを比較する
+// クライアント側がボトルネックにならないよう、接続ごとのスレッドは使わず非同期APIでリクエストを送る
+//
+// 実行例:
+//   java -cp benchmarks/target/benchmarks.jar net.javaguides.springboot.benchmark.EmployeeApiLoadTest \
+//     http://localhost:8080/api/employees/1 5000 60
+public class EmployeeApiLoadTest {
+
+  // レイテンシを100マイクロ秒単位のバケットで集計する（最大10秒）
+  private static final long BUCKET_NANOS = 100_000;
+  private static final int BUCKETS = 100_000;
+
+  private final HttpClient client;
+  private final HttpRequest request;
+  private final long deadline;
+  private final CountDownLatch finished;
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+  EmployeeApiLoadTest(URI uri, int connections, Duration duration) {
+    this.client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+    this.request = HttpRequest.newBuilder(uri).GET().build();
+    this.deadline = System.nanoTime() + duration.toNanos();
+    this.finished = new CountDownLatch(connections);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/employees/1");
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+
+    EmployeeApiLoadTest loadTest = new EmployeeApiLoadTest(uri, connections, duration);
+    for (int i = 0; i < connections; i++) {
+      loadTest.next();
+    }
+    loadTest.finished.await();
+
+    System.out.printf("connections=%d duration=%ds%n", connections, duration.toSeconds());
+    System.out.printf("throughput=%.1f req/s succeeded=%d failed=%d%n",
+      loadTest.succeeded.get() / (double) duration.toSeconds(), loadTest.succeeded.get(), loadTest.failed.get());
+    System.out.printf("latency p50=%.1fms p99=%.1fms p999=%.1fms%n",
+      loadTest.percentile(0.50), loadTest.percentile(0.99), loadTest.percentile(0.999));
+  }
+
+  // 1接続分のリクエストを送信し、レスポンス受信後に次のリクエストを送信する
+  private void next() {
+    if (System.nanoTime() >= deadline) {
+      finished.countDown();
+      return;
+    }
+    long start = System.nanoTime();
+    client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+      .whenComplete((response, e) -> {
+        if (e == null && response.statusCode() < 500) {
+          succeeded.incrementAndGet();
+        } else {
+          failed.incrementAndGet();
+        }
+        latencies.incrementAndGet((int) Math.min(BUCKETS - 1, (System.nanoTime() - start) / BUCKET_NANOS));
+        next();
+      });
+  }
+
+  private double percentile(double percentile) {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += latencies.get(i);
+    }
+    long threshold = (long) Math.ceil(total * percentile);
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += latencies.get(i);
+      if (count >= threshold && count > 0) {
+        return (i + 1) * BUCKET_NANOS / 1_000_000.0;
+      }
+    }
+    return 0;
+  }
+}
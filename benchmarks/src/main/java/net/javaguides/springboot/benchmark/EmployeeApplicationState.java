@@ -0,0 +1,74 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ベンチマーク用にアプリケーションコンテキストを起動する共通State
+// データソースはMySQL互換モードのインメモリH2に差し替え、rows件のEmployeeを事前に登録する
+@State(Scope.Benchmark)
+public class EmployeeApplicationState {
+
+  @Param({"10000"})
+  public int rows;
+
+  @Param({"false"})
+  public boolean secondLevelCache;
+
+  public ConfigurableApplicationContext context;
+  public EmployeeService employeeService;
+  public EmployeeRepository employeeRepository;
+  public long minId;
+  public long maxId;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+      .web(WebApplicationType.NONE)
+      // application.propertiesより優先させるため、コマンドライン引数として渡す
+      .run(
+        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.hibernate.ddl-auto=create-drop",
+        "--spring.jpa.show-sql=false",
+        "--employee.cache.enabled=" + secondLevelCache,
+        "--logging.level.root=WARN");
+    employeeService = context.getBean(EmployeeService.class);
+    employeeRepository = context.getBean(EmployeeRepository.class);
+
+    List<Employee> employees = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      employees.add(employee(i));
+    }
+    List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+    minId = savedEmployees.get(0).getId();
+    maxId = savedEmployees.get(savedEmployees.size() - 1).getId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  public static Employee employee(long i) {
+    return Employee.builder()
+      .firstName("First" + i)
+      .lastName("Last" + i)
+      .email("employee" + i + "@gmail.com")
+      .build();
+  }
+}
@@ -0,0 +1,149 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// prodプロファイル（application-prod.properties）のデータソース設定の効果を、登録・検索の経路で計測するベンチマーク
+// Connector/J固有の設定を比較するため、H2ではなくMySQLに接続する（-p tuned=false,true で設定の有無を比較する）
+// 接続先を指定しない場合は、Testcontainersで試行（tuned=false/true）ごとに新しいMySQLのコンテナを起動する（Dockerが必要）
+// 既存のMySQLで計測する場合はシステムプロパティで指定する（フォークしたJVMにも引き継がれる。データベースは ddl-auto=create-drop で作り直すため、専用のものを用意する）
+//
+// 実行例:
+//   java -jar benchmarks/target/benchmarks.jar EmployeeDataSourceTuningBenchmark
+//   java -Dbenchmark.mysql.url=jdbc:mysql://localhost:3306/ems_benchmark?useSSL=false \
+//     -Dbenchmark.mysql.username=root -Dbenchmark.mysql.password=secret \
+//     -jar benchmarks/target/benchmarks.jar EmployeeDataSourceTuningBenchmark
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class EmployeeDataSourceTuningBenchmark {
+
+  // saveEmployees 1回あたりの件数（JDBCバッチ・rewriteBatchedStatementsの効果が出る件数にする）
+  private static final int BATCH = 100;
+  // 登録するメールアドレスを一意にするための連番
+  private static final AtomicLong SEQUENCE = new AtomicLong(Long.MAX_VALUE / 2);
+  // 結果を比較できるよう、コンテナのMySQLはバージョンを固定する
+  private static final String MYSQL_IMAGE = "mysql:8.0.36";
+
+  @State(Scope.Benchmark)
+  public static class MySqlState {
+
+    @Param({"false", "true"})
+    public boolean tuned;
+
+    @Param({"10000"})
+    public int rows;
+
+    MySQLContainer<?> mySql;
+    ConfigurableApplicationContext context;
+    EmployeeService employeeService;
+    long minId;
+    long maxId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      String url = System.getProperty("benchmark.mysql.url");
+      String username = System.getProperty("benchmark.mysql.username", "root");
+      String password = System.getProperty("benchmark.mysql.password", "");
+      if (url == null) {
+        mySql = new MySQLContainer<>(MYSQL_IMAGE)
+          .withDatabaseName("ems_benchmark")
+          .withUrlParam("useSSL", "false")
+          .withUrlParam("useCursorFetch", "true");
+        mySql.start();
+        url = mySql.getJdbcUrl();
+        username = mySql.getUsername();
+        password = mySql.getPassword();
+      }
+      List<String> args = new ArrayList<>(List.of(
+        "--spring.datasource.url=" + url,
+        "--spring.datasource.username=" + username,
+        "--spring.datasource.password=" + password,
+        "--spring.jpa.hibernate.ddl-auto=create-drop",
+        // データソース以外の条件を揃える（SQLログ・キャッシュ・リクエストの集約は無効にし、毎回DBにアクセスさせる）
+        "--spring.jpa.show-sql=false",
+        "--employee.cache.enabled=false",
+        "--employee.single-flight.enabled=false",
+        "--employee.outbox.relay-enabled=false",
+        "--logging.level.root=WARN"));
+      if (tuned) {
+        args.add("--spring.profiles.active=prod");
+      }
+      context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(args.toArray(String[]::new));
+      employeeService = context.getBean(EmployeeService.class);
+
+      List<Employee> employees = new ArrayList<>(rows);
+      for (int i = 0; i < rows; i++) {
+        employees.add(EmployeeApplicationState.employee(i));
+      }
+      List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+      minId = savedEmployees.get(0).getId();
+      maxId = savedEmployees.get(savedEmployees.size() - 1).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      context.close();
+      if (mySql != null) {
+        mySql.stop();
+      }
+    }
+  }
+
+  @Benchmark
+  public Employee saveEmployee(MySqlState state) {
+    return state.employeeService.saveEmployee(EmployeeApplicationState.employee(SEQUENCE.incrementAndGet()));
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public List<Employee> saveEmployees(MySqlState state) {
+    List<Employee> employees = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      employees.add(EmployeeApplicationState.employee(SEQUENCE.incrementAndGet()));
+    }
+    return state.employeeService.saveEmployees(employees);
+  }
+
+  @Benchmark
+  public Optional<Employee> getEmployeeById(MySqlState state) {
+    return state.employeeService.getEmployeeById(ThreadLocalRandom.current().nextLong(state.minId, state.maxId + 1));
+  }
+
+  @Benchmark
+  public Optional<Employee> getEmployeeByEmail(MySqlState state) {
+    long i = ThreadLocalRandom.current().nextLong(state.rows);
+    return state.employeeService.getEmployeeByEmail(EmployeeApplicationState.employee(i).getEmail());
+  }
+}
@@ -0,0 +1,89 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// GET /api/employees のレスポンス形式ごとのシリアライズ時間と転送サイズのベンチマーク
+// format: Acceptヘッダーで選択できる形式、compression: server.compressionによるgzip圧縮の有無
+// 転送サイズは補助カウンタ wireBytes としてベンチマーク結果に出力される
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeEncodingBenchmark {
+
+  @Param({"10000"})
+  public int size;
+
+  @Param({"json", "smile", "cbor"})
+  public String format;
+
+  @Param({"none", "gzip"})
+  public String compression;
+
+  private List<Employee> employees;
+  private ObjectWriter writer;
+
+  // 1回のシリアライズで出力されたバイト数（イテレーションごとに集計せず、最後の値をそのまま出力する）
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class WireSize {
+    public long wireBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    employees = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Employee employee = EmployeeApplicationState.employee(i);
+      employee.setId(i + 1);
+      employees.add(employee);
+    }
+    ObjectMapper mapper = switch (format) {
+      case "smile" -> new SmileMapper();
+      case "cbor" -> new CBORMapper();
+      default -> new ObjectMapper();
+    };
+    writer = mapper.writer();
+  }
+
+  @Benchmark
+  public byte[] serialize(WireSize wireSize) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (compression.equals("gzip")) {
+      try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+        writer.writeValue(gzip, employees);
+      }
+    } else {
+      writer.writeValue(bytes, employees);
+    }
+    wireSize.wireBytes = bytes.size();
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,54 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Employeeのリストをシリアライズするコストのベンチマーク（GET /api/employees のレスポンス生成相当）
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark {
+
+  @Param({"100", "10000"})
+  public int size;
+
+  private List<Employee> employees;
+  private ObjectWriter jsonWriter;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    employees = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Employee employee = EmployeeApplicationState.employee(i);
+      employee.setId(i + 1);
+      employees.add(employee);
+    }
+    jsonWriter = new ObjectMapper().writer();
+  }
+
+  @Benchmark
+  public byte[] serializeJson() throws JsonProcessingException {
+    return jsonWriter.writeValueAsBytes(employees);
+  }
+}
@@ -0,0 +1,109 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// EmployeeRepositoryの姓名検索4種類（JPQL/ネイティブSQL × index/named param）と派生クエリのベンチマーク
+// employeesをtableRows件まで増やし、nameIndex=true/false で(last_name, first_name)インデックスの有無を比較する
+// 1,000,000件のH2インメモリDBは1GB程度のヒープを使用するため、フォークしたJVMのヒープを大きくしている
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class EmployeeNameLookupBenchmark {
+
+  // 1回のバッチINSERTの件数
+  private static final int INSERT_BATCH_SIZE = 10_000;
+
+  @State(Scope.Benchmark)
+  public static class Table {
+
+    @Param({"1000000"})
+    public int tableRows;
+
+    @Param({"true", "false"})
+    public boolean nameIndex;
+
+    // サービス経由で登録した rows 件に続けて、残りの行をJDBCのバッチINSERTで直接登録する
+    // （検索しか行わないため、アウトボックスのイベントは登録しない）
+    // nameIndex=false の場合はインデックスを削除し、インデックスがない状態（全件走査）を計測する
+    @Setup(Level.Trial)
+    public void setup(EmployeeApplicationState state) {
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(state.context.getBean(DataSource.class));
+      Timestamp now = Timestamp.from(Instant.now());
+      for (int from = state.rows; from < tableRows; from += INSERT_BATCH_SIZE) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = from; i < Math.min(from + INSERT_BATCH_SIZE, tableRows); i++) {
+          Employee employee = EmployeeApplicationState.employee(i);
+          batch.add(new Object[]{state.maxId + 1 + i - state.rows, employee.getFirstName(), employee.getLastName(),
+            employee.getEmail(), now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email, version, deleted,"
+          + " created_at, updated_at) values (?, ?, ?, ?, 0, false, ?, ?)", batch);
+      }
+      if (!nameIndex) {
+        jdbcTemplate.execute("drop index idx_employees_last_name_first_name");
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Lookup {
+    String firstName;
+    String lastName;
+
+    @Setup(Level.Invocation)
+    public void next(Table table) {
+      int i = ThreadLocalRandom.current().nextInt(table.tableRows);
+      firstName = "First" + i;
+      lastName = "Last" + i;
+    }
+  }
+
+  @Benchmark
+  public Optional<Employee> findByJPQL(EmployeeApplicationState state, Lookup lookup) {
+    return state.employeeRepository.findByJPQL(lookup.firstName, lookup.lastName);
+  }
+
+  @Benchmark
+  public Optional<Employee> findByJPQLNamedParams(EmployeeApplicationState state, Lookup lookup) {
+    return state.employeeRepository.findByJPQLNamedParams(lookup.firstName, lookup.lastName);
+  }
+
+  @Benchmark
+  public Optional<Employee> findByNativeSQL(EmployeeApplicationState state, Lookup lookup) {
+    return state.employeeRepository.findByNativeSQL(lookup.firstName, lookup.lastName);
+  }
+
+  @Benchmark
+  public Optional<Employee> findByNativeSQLNamed(EmployeeApplicationState state, Lookup lookup) {
+    return state.employeeRepository.findByNativeSQLNamed(lookup.firstName, lookup.lastName);
+  }
+
+  @Benchmark
+  public List<Employee> findByLastNameAndFirstName(EmployeeApplicationState state, Lookup lookup) {
+    return state.employeeRepository.findByLastNameAndFirstName(lookup.lastName, lookup.firstName);
+  }
+}
@@ -0,0 +1,90 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+import net.javaguides.springboot.service.impl.EmployeePrefixIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/employees/search?q= の索引（EmployeePrefixIndex）の検索時間のベンチマーク
+// 姓・名は実際の名簿のように一部の値に偏らせる（smith などの長い語が、短い語より多く一致する）
+// query は「一致の多い長い接頭辞 + 一致の少ない短い接頭辞」など、走査の起点の選び方で差が出る組み合わせ
+// 5,000,000件の索引は数GBのヒープを使用するため、フォークしたJVMのヒープを大きくしている
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+@State(Scope.Benchmark)
+public class EmployeePrefixIndexBenchmark {
+
+  private static final String[] FIRST_NAMES = {
+    "james", "mary", "john", "patricia", "robert", "jennifer", "michael", "linda", "william", "elizabeth",
+    "david", "barbara", "richard", "susan", "joseph", "jessica", "thomas", "sarah", "charles", "karen"};
+  private static final String[] LAST_NAMES = {
+    "smith", "johnson", "williams", "brown", "jones", "garcia", "miller", "davis", "rodriguez", "martinez",
+    "hernandez", "lopez", "gonzalez", "wilson", "anderson", "thomas", "taylor", "moore", "jackson", "martin"};
+  private static final String[] DOMAINS = {"gmail.com", "example.com", "javaguides.net"};
+
+  @Param({"5000000"})
+  public int size;
+
+  @Param({"smith zo", "williams je", "johnson ma", "j s", "zora"})
+  public String query;
+
+  private EmployeePrefixIndex index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    index = new EmployeePrefixIndex();
+    Random random = new Random(42);
+    for (int i = 0; i < size; i++) {
+      index.put(employee(i, random));
+    }
+  }
+
+  @Benchmark
+  public List<EmployeeSearchHit> search() {
+    return index.search(query, 20);
+  }
+
+  // 2/3は上位20件の姓・名から選び（先頭ほど多い）、残りは一意の値にする
+  static Employee employee(long id, Random random) {
+    String firstName = random.nextInt(3) < 2 ? skewed(FIRST_NAMES, random) : name(random);
+    String lastName = random.nextInt(3) < 2 ? skewed(LAST_NAMES, random) : name(random);
+    return Employee.builder()
+      .id(id)
+      .firstName(firstName)
+      .lastName(lastName)
+      .email(firstName + "." + lastName + id + "@" + DOMAINS[(int) (id % DOMAINS.length)])
+      .build();
+  }
+
+  private static String skewed(String[] values, Random random) {
+    double r = random.nextDouble();
+    return values[(int) (r * r * values.length)];
+  }
+
+  private static String name(Random random) {
+    StringBuilder name = new StringBuilder();
+    int length = 4 + random.nextInt(5);
+    for (int i = 0; i < length; i++) {
+      name.append((char) ('a' + random.nextInt(26)));
+    }
+    return name.toString();
+  }
+}
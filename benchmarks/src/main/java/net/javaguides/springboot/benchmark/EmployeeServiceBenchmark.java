@@ -0,0 +1,86 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// EmployeeServiceImplのホットパスのベンチマーク
+// Throughputでops/s、SampleTimeでp99などのレイテンシ分布を計測する
+// saveEmployeesBatch と saveEmployeePerRow は同じ batchRows 件を登録するため、1回あたりの時間の比が一括登録の効果になる
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+  // saveEmployeeで登録するメールアドレスを一意にするための連番
+  private static final AtomicLong SEQUENCE = new AtomicLong(Long.MAX_VALUE / 2);
+
+  // 一括登録と1件ずつの登録で使用する、未登録のEmployee batchRows 件
+  @State(Scope.Thread)
+  public static class NewEmployees {
+
+    @Param({"500"})
+    public int batchRows;
+
+    List<Employee> employees;
+
+    @Setup(Level.Invocation)
+    public void next() {
+      employees = new ArrayList<>(batchRows);
+      for (int i = 0; i < batchRows; i++) {
+        employees.add(EmployeeApplicationState.employee(SEQUENCE.incrementAndGet()));
+      }
+    }
+  }
+
+  @Benchmark
+  public Employee saveEmployee(EmployeeApplicationState state) {
+    return state.employeeService.saveEmployee(EmployeeApplicationState.employee(SEQUENCE.incrementAndGet()));
+  }
+
+  // 1トランザクションでメールの重複をIN句でまとめて確認し、JDBCバッチINSERTで登録する
+  @Benchmark
+  public List<Employee> saveEmployeesBatch(EmployeeApplicationState state, NewEmployees newEmployees) {
+    return state.employeeService.saveEmployees(newEmployees.employees);
+  }
+
+  // 同じ件数を1件ずつ（1件ごとにINSERT・コミット）登録する
+  @Benchmark
+  public Employee saveEmployeePerRow(EmployeeApplicationState state, NewEmployees newEmployees) {
+    Employee savedEmployee = null;
+    for (Employee employee : newEmployees.employees) {
+      savedEmployee = state.employeeService.saveEmployee(employee);
+    }
+    return savedEmployee;
+  }
+
+  @Benchmark
+  public Optional<Employee> getEmployeeById(EmployeeApplicationState state) {
+    long id = ThreadLocalRandom.current().nextLong(state.minId, state.maxId + 1);
+    return state.employeeService.getEmployeeById(id);
+  }
+
+  @Benchmark
+  public List<Employee> getAllEmployees(EmployeeApplicationState state) {
+    return state.employeeService.getAllEmployees();
+  }
+}
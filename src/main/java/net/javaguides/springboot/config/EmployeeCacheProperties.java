@@ -0,0 +1,21 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Employeeエンティティの2次キャッシュ設定
+// employee.cache.enabled=true の場合のみHibernateの2次キャッシュを有効にする
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.cache")
+public class EmployeeCacheProperties {
+
+  private boolean enabled = false;
+  // キャッシュに保持する最大エントリ数（超えた分はW-TinyLFUで追い出される）
+  private long maxSize = 10_000;
+  // 書き込みからの有効期間
+  private Duration ttl = Duration.ofMinutes(10);
+}
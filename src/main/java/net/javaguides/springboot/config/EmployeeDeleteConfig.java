@@ -0,0 +1,35 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Employeeの削除設定
+// ソフトデリートが有効な場合のみ、削除フラグの付いた行を定期的に物理削除する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeDeleteProperties.class)
+public class EmployeeDeleteConfig {
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(prefix = "employee.delete", name = "soft-delete", havingValue = "true")
+  static class PurgeSchedulingConfig {
+
+    private final EmployeeService employeeService;
+
+    PurgeSchedulingConfig(EmployeeService employeeService) {
+      this.employeeService = employeeService;
+    }
+
+    // purge-interval はISO-8601形式（PT1Mなど）またはミリ秒で指定する
+    @Scheduled(fixedDelayString = "${employee.delete.purge-interval:PT1M}")
+    public void purgeDeletedEmployees() {
+      employeeService.purgeDeletedEmployees();
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Employeeの削除設定
+// employee.delete.soft-delete=true の場合、削除時は削除フラグを立てるだけにし、定期ジョブで物理削除する
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.delete")
+public class EmployeeDeleteProperties {
+
+  private boolean softDelete = false;
+  // 一括削除時に1回のDELETE(UPDATE)文のIN句に渡す最大件数
+  private int chunkSize = 1000;
+  // 物理削除ジョブが1回のDELETE文で削除する最大件数
+  private int purgeBatchSize = 500;
+  // 物理削除ジョブの実行間隔（前回の終了からの間隔）
+  private Duration purgeInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,78 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.outbox.EmployeeChangeSink;
+import net.javaguides.springboot.outbox.EmployeeOutboxRelay;
+import net.javaguides.springboot.outbox.FileEmployeeChangeSink;
+import net.javaguides.springboot.outbox.InMemoryEmployeeChangeSink;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Employeeの変更イベントの配信設定
+// シンクは employee.outbox.sink で選択する（EmployeeChangeSinkのBeanを定義した場合はそちらを使用する）
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeOutboxProperties.class)
+public class EmployeeOutboxConfig {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public EmployeeChangeSink employeeChangeSink(EmployeeOutboxProperties properties, ObjectMapper objectMapper) {
+    return switch (properties.getSink()) {
+      case MEMORY -> new InMemoryEmployeeChangeSink(properties.getMemoryCapacity());
+      case FILE -> new FileEmployeeChangeSink(properties.getFile(), objectMapper);
+    };
+  }
+
+  @Bean
+  public EmployeeOutboxRelay employeeOutboxRelay(EmployeeOutboxRepository outboxRepository, EmployeeChangeSink sink,
+                                                 EmployeeOutboxProperties properties) {
+    return new EmployeeOutboxRelay(outboxRepository, sink, properties);
+  }
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(prefix = "employee.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+  static class RelaySchedulingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RelaySchedulingConfig.class);
+
+    private final EmployeeOutboxRelay relay;
+    private final EmployeeOutboxProperties properties;
+
+    RelaySchedulingConfig(EmployeeOutboxRelay relay, EmployeeOutboxProperties properties) {
+      this.relay = relay;
+      this.properties = properties;
+    }
+
+    // 未配信のイベントがなくなるまでバッチ単位で配信する
+    // 他のインスタンスのリレーと連番が重複した場合は、そのバッチを次回に配信する
+    @Scheduled(fixedDelayString = "${employee.outbox.relay-interval:PT1S}")
+    public void relay() {
+      int relayedCount;
+      do {
+        try {
+          relayedCount = relay.relay();
+        } catch (DataIntegrityViolationException e) {
+          log.info("Outbox relay conflicted with another relay, retrying next cycle: {}", e.getMessage());
+          return;
+        }
+      } while (relayedCount == properties.getBatchSize());
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    public void purge() {
+      relay.purge();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Employeeの変更イベント（トランザクショナル・アウトボックス）の設定
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.outbox")
+public class EmployeeOutboxProperties {
+
+  public enum Sink { MEMORY, FILE }
+
+  // false の場合、イベントの登録は行うが配信（連番の付与）は行わない（別のインスタンスがリレーする場合など）
+  private boolean relayEnabled = true;
+  // リレーの実行間隔（前回の終了からの間隔）。変更フィードに現れるまでの遅延になる
+  private Duration relayInterval = Duration.ofSeconds(1);
+  // 1トランザクションで配信するイベント数
+  private int batchSize = 500;
+  // 配信済みのイベントを保持する期間（これより古い since からは再開できない）
+  private Duration retention = Duration.ofDays(7);
+  private Sink sink = Sink.MEMORY;
+  // sink=memory の場合に保持する件数
+  private int memoryCapacity = 10000;
+  // sink=file の場合の出力先
+  private Path file = Path.of("data", "employee-changes.jsonl");
+}
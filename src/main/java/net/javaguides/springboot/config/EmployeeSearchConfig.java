@@ -0,0 +1,34 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.service.EmployeeSearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// 従業員検索の設定
+// 索引は各インスタンスのメモリにあるため、変更フィードを定期的に取得して他のインスタンスでの変更を反映する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeSearchProperties.class)
+public class EmployeeSearchConfig {
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(prefix = "employee.search", name = "feed-polling-enabled", havingValue = "true", matchIfMissing = true)
+  static class FeedPollingConfig {
+
+    private final EmployeeSearchService employeeSearchService;
+
+    FeedPollingConfig(EmployeeSearchService employeeSearchService) {
+      this.employeeSearchService = employeeSearchService;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.search.feed-poll-interval:PT1S}")
+    public void pollChanges() {
+      employeeSearchService.pollChanges();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// 従業員検索（前方一致の索引）の設定
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.search")
+public class EmployeeSearchProperties {
+
+  // false の場合、索引にはこのインスタンスでの変更だけが反映される（他のインスタンスの変更は作り直すまで反映されない）
+  private boolean feedPollingEnabled = true;
+  // 変更フィードを取得する間隔（前回の終了からの間隔）。他のインスタンスでの変更が検索に現れるまでの遅延になる
+  private Duration feedPollInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,12 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Employeeの読み込みの同時実行をまとめる設定（SingleFlightはEmployeeServiceImplが保持する）
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeSingleFlightProperties.class)
+public class EmployeeSingleFlightConfig {
+}
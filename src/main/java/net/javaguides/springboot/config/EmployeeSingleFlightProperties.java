@@ -0,0 +1,19 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Employeeの読み込みの同時実行をまとめる設定
+// 同じid・メールに対して同時に来た読み込みは、先行する1回のクエリの結果を共有する
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.single-flight")
+public class EmployeeSingleFlightProperties {
+
+  private boolean enabled = true;
+  // 先行する読み込みの完了を待つ最大時間（超えた場合は自分でクエリを発行する）
+  private Duration maxWait = Duration.ofSeconds(2);
+}
@@ -0,0 +1,15 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+// 差分同期の設定
+// Employeeの created_at / updated_at をJPAの監査機能（@CreatedDate / @LastModifiedDate）で設定する
+@Configuration
+@Profile("!reactive")
+@EnableJpaAuditing
+@EnableConfigurationProperties(EmployeeSyncProperties.class)
+public class EmployeeSyncConfig {
+}
@@ -0,0 +1,20 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// 差分同期（GET /api/employees?modifiedSince=）の設定
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.sync")
+public class EmployeeSyncProperties {
+
+  // 直近 settle-window 以内に更新された行は返さない
+  // 更新日時の設定からコミットまでの間に同期されて、その行を取りこぼすことを防ぐ
+  private Duration settleWindow = Duration.ofSeconds(5);
+  // 1回のレスポンスで返す最大件数（超える場合は watermark から続きを取得する）
+  private int maxPageSize = 1000;
+}
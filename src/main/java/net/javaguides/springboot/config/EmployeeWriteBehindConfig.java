@@ -0,0 +1,34 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService;
+import net.javaguides.springboot.writebehind.EmployeeWriteJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Employeeの非同期登録（write-behind）の設定
+// 起動時にジャーナルの未完了の登録を再実行し、終了時は書き込み中のバッチの完了を待つ
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeWriteBehindProperties.class)
+public class EmployeeWriteBehindConfig {
+
+  @Configuration
+  @ConditionalOnProperty(prefix = "employee.write-behind", name = "enabled", havingValue = "true")
+  static class WriteBehindServiceConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmployeeWriteBehindService employeeWriteBehindService(EmployeeService employeeService,
+                                                                 ObjectMapper objectMapper,
+                                                                 EmployeeWriteBehindProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+      EmployeeWriteJournal journal = new EmployeeWriteJournal(properties.getJournalFile(), objectMapper);
+      return new EmployeeWriteBehindService(employeeService, journal, properties, meterRegistry);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Employeeの非同期登録（write-behind）の設定
+// employee.write-behind.enabled=true の場合、Prefer: respond-async を指定したPOSTは
+// ジャーナルに記録した時点で202を返し、バックグラウンドでまとめてDBに書き込む
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.write-behind")
+public class EmployeeWriteBehindProperties {
+
+  private boolean enabled = false;
+  // 受け付けた登録を記録するジャーナルファイル（起動時に未完了の登録を再実行する）
+  private Path journalFile = Path.of("data", "employee-write-journal.jsonl");
+  // DBへの書き込みを待っている登録の最大件数（超えた場合は offer-timeout まで待ってから503を返す）
+  private int queueCapacity = 10000;
+  private Duration offerTimeout = Duration.ofMillis(100);
+  // 1回のトランザクションでまとめて登録する最大件数（hibernate.jdbc.batch_sizeと合わせる）
+  private int batchSize = 50;
+  // DBへの書き込みに失敗した場合に再試行するまでの待ち時間
+  private Duration retryBackoff = Duration.ofSeconds(1);
+  // 書き込みが完了した登録の状態を保持する件数
+  private int statusHistorySize = 10000;
+}
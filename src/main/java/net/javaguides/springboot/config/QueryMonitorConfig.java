@@ -0,0 +1,53 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.monitoring.DataSourceListeners;
+import net.javaguides.springboot.monitoring.QueryMonitor;
+import net.javaguides.springboot.monitoring.QueryMonitorEndpoint;
+import net.javaguides.springboot.monitoring.QueryMonitorFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// SQL実行の監視設定
+// データソース(Hikari)をdatasource-proxyでラップし、実行された全SQLをQueryMonitorに通知する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(QueryMonitorProperties.class)
+@ConditionalOnProperty(prefix = "employee.query-monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMonitorConfig {
+
+  @Bean
+  public QueryMonitor queryMonitor(QueryMonitorProperties properties) {
+    return new QueryMonitor(properties);
+  }
+
+  // BeanPostProcessorは他のBeanより先に生成されるため、staticメソッドで定義してQueryMonitorは遅延取得する
+  @Bean
+  public static BeanPostProcessor queryMonitorDataSourcePostProcessor(ObjectProvider<QueryMonitor> queryMonitor) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return DataSourceListeners.attach(bean, beanName, queryMonitor::getObject);
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public FilterRegistrationBean<QueryMonitorFilter> queryMonitorFilter(QueryMonitor queryMonitor) {
+    FilterRegistrationBean<QueryMonitorFilter> registration = new FilterRegistrationBean<>(new QueryMonitorFilter(queryMonitor));
+    registration.addUrlPatterns("/api/*");
+    return registration;
+  }
+
+  @Bean
+  public QueryMonitorEndpoint queryMonitorEndpoint(QueryMonitor queryMonitor) {
+    return new QueryMonitorEndpoint(queryMonitor);
+  }
+}
@@ -0,0 +1,29 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+// SQL実行の監視設定
+// データソースをプロキシでラップし、遅いSQLとリクエストごとのSQL実行回数(N+1の疑い)を記録する
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.query-monitor")
+public class QueryMonitorProperties {
+
+  private boolean enabled = true;
+  // この時間以上かかったSQLを遅いSQLとして記録する
+  private Duration slowQueryThreshold = Duration.ofMillis(200);
+  // 1リクエストで実行してよいSQLの最大数（超えた場合はN+1の疑いとして記録する）
+  private int maxStatementsPerRequest = 10;
+  // SQL実行回数を数えないリクエスト（"<メソッド> <パス>"）
+  // 一括登録・一括削除は件数に比例してSQLを実行するため、上限を超えてもN+1ではない（遅いSQLは記録する）
+  private List<String> bulkRequests = List.of("POST /api/employees/batch", "DELETE /api/employees");
+  // trueの場合は違反時に例外を投げる（テストを失敗させるために使用する）
+  private boolean failOnViolation = false;
+  // 記録しておく直近の違反の件数
+  private int historySize = 100;
+}
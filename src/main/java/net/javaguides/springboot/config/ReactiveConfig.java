@@ -0,0 +1,21 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+// reactiveプロファイルの設定
+// クラスパスにTomcatもあるため、リアクティブモードではReactor Nettyを明示的に使用する
+// ReactiveEmployeeの登録日時・更新日時はR2DBCの監査機能で設定する
+@Configuration
+@Profile("reactive")
+@EnableR2dbcAuditing
+public class ReactiveConfig {
+
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+}
@@ -0,0 +1,92 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.datasource.ReadYourWritesFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Map;
+
+// リードレプリカへのルーティング設定（employee.datasource.replica.url を指定した場合のみ有効）
+// spring.datasource.* をプライマリ、employee.datasource.replica.* をレプリカのコネクションプールとし、
+// @Transactional(readOnly = true) のトランザクションをレプリカに振り分ける
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "employee.datasource.replica", name = "url")
+public class ReplicaRoutingConfig {
+
+  // プライマリのプール設定は通常どおり spring.datasource.hikari.* で行う
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  // レプリカのプール設定は employee.datasource.replica.hikari.* で行う
+  @Bean
+  @ConfigurationProperties("employee.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(ReplicaRoutingProperties properties) {
+    ReplicaRoutingProperties.Replica replica = properties.getReplica();
+    HikariDataSource dataSource = DataSourceBuilder.create()
+      .type(HikariDataSource.class)
+      .url(replica.getUrl())
+      .username(replica.getUsername())
+      .password(replica.getPassword())
+      .driverClassName(replica.getDriverClassName())
+      .build();
+    dataSource.setPoolName("replica");
+    // レプリカには書き込まない
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  // JPA・JdbcTemplateなどが使用するデータソース
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                               @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+    ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+    routingDataSource.setTargetDataSources(Map.of(
+      ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+      ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+    routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  @ConditionalOnProperty(prefix = "employee.datasource", name = "read-your-writes", havingValue = "true", matchIfMissing = true)
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+    byte[] secret;
+    if (StringUtils.hasText(properties.getReadYourWritesSecret())) {
+      secret = properties.getReadYourWritesSecret().getBytes(StandardCharsets.UTF_8);
+    } else {
+      secret = new byte[32];
+      new SecureRandom().nextBytes(secret);
+    }
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+      new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getReadYourWritesWindow(), secret));
+    registration.addUrlPatterns("/api/*");
+    return registration;
+  }
+}
@@ -0,0 +1,34 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// 読み取り専用トランザクションをリードレプリカに振り分ける設定
+// employee.datasource.replica.url を指定した場合のみ有効になる
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.datasource")
+public class ReplicaRoutingProperties {
+
+  private final Replica replica = new Replica();
+  // 書き込みを行ったクライアントの読み取りを、一定時間プライマリに固定する（レプリカの遅延で書き込みが見えなくなるのを防ぐ）
+  private boolean readYourWrites = true;
+  // 書き込み後にプライマリへ固定する時間（レプリカの想定遅延より長くする）
+  private Duration readYourWritesWindow = Duration.ofSeconds(5);
+  // 固定期限のCookieに署名する鍵（未指定の場合は起動ごとに生成する）
+  // 複数インスタンスで運用する場合は、他のインスタンスが発行したCookieを検証できるよう同じ値を指定する
+  private String readYourWritesSecret;
+
+  @Getter
+  @Setter
+  public static class Replica {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+  }
+}
@@ -0,0 +1,32 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.migration.SchemaMigrator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+// スキーママイグレーションの設定（ddl-auto=update の代わり）
+// HibernateがEntityManagerFactoryの生成時にスキーマを検証（ddl-auto=validate）できるよう、その前にマイグレーションを適用する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(SchemaMigrationProperties.class)
+@ConditionalOnProperty(prefix = "employee.schema-migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrationConfig {
+
+  @Bean(initMethod = "migrate")
+  public SchemaMigrator schemaMigrator(DataSource dataSource, SchemaMigrationProperties properties) {
+    return new SchemaMigrator(dataSource, properties);
+  }
+
+  // EntityManagerFactoryをschemaMigratorの初期化後に生成させる
+  // BeanFactoryPostProcessorは他のBeanより先に生成されるため、staticメソッドで定義する
+  @Bean
+  public static EntityManagerFactoryDependsOnPostProcessor schemaMigratorDependsOnPostProcessor() {
+    return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+  }
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// 起動時のスキーママイグレーションの設定
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.schema-migration")
+public class SchemaMigrationProperties {
+
+  private boolean enabled = true;
+  // マイグレーション（V<バージョン>__<説明>.sql）の場所（{vendor} はJDBC URLから判定したDBの種類: mysql, h2 など）
+  private String location = "classpath:db/migration/{vendor}";
+  // 適用済みのマイグレーションを記録するテーブル
+  private String table = "schema_migrations";
+  // 履歴がなく既にテーブルがある（マイグレーション導入前に ddl-auto=update で作成された）スキーマは、
+  // baseline-version（V1: 導入前のテーブル）まで適用済みとして記録し、それ以降のマイグレーションを適用する
+  private boolean baselineOnMigrate = true;
+  private int baselineVersion = 1;
+}
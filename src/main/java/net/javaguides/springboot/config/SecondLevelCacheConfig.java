@@ -0,0 +1,73 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+
+// Hibernateの2次キャッシュ設定
+// インプロセスのJCache実装(Caffeine)を使用し、id指定の読み込みをJDBCアクセスなしで返却する
+// 更新・削除時はHibernateがREAD_WRITE戦略でキャッシュを無効化する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+  // @Cacheでregionを指定しない場合、エンティティの完全修飾名がリージョン名になる
+  public static final String EMPLOYEE_REGION = Employee.class.getName();
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(EmployeeCacheProperties properties,
+                                                                  ObjectProvider<CacheManager> hibernateCacheManager) {
+    return hibernateProperties -> {
+      // hibernate-jcacheがクラスパスにあると暗黙的に有効になるため、無効の場合は明示的にオフにする
+      if (!properties.isEnabled()) {
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        return;
+      }
+      hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+      hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager.getObject());
+      // 設定していないリージョンが暗黙的に作られないようにする
+      hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  @Configuration
+  @ConditionalOnProperty(prefix = "employee.cache", name = "enabled", havingValue = "true")
+  static class CaffeineCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(EmployeeCacheProperties properties) {
+      // アプリケーションコンテキストごとに独立したCacheManagerを使用する
+      CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      configuration.setMaximumSize(OptionalLong.of(properties.getMaxSize()));
+      configuration.setExpireAfterWrite(OptionalLong.of(properties.getTtl().toNanos()));
+      // ヒット・ミス・追い出しの統計を有効にする（JCacheMetricsが参照する）
+      configuration.setStatisticsEnabled(true);
+      cacheManager.createCache(EMPLOYEE_REGION, configuration);
+      return cacheManager;
+    }
+
+    // cache.gets(hit/miss), cache.puts, cache.evictions などのメトリクスを登録する
+    @Bean
+    public MeterBinder employeeCacheMetrics(CacheManager hibernateCacheManager) {
+      return registry -> JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(EMPLOYEE_REGION));
+    }
+  }
+}
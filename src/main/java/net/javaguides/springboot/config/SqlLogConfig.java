@@ -0,0 +1,36 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.monitoring.DataSourceListeners;
+import net.javaguides.springboot.monitoring.SqlLogListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// SQLログの設定（spring.jpa.show-sql の代わり）
+// datasource-proxyのリスナーで実行時間付きのSQLをロガーに渡し、logback-spring.xml の非同期アペンダーで出力する
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(SqlLogProperties.class)
+@ConditionalOnProperty(prefix = "employee.sql-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLogConfig {
+
+  @Bean
+  public SqlLogListener sqlLogListener(SqlLogProperties properties) {
+    return new SqlLogListener(properties);
+  }
+
+  // BeanPostProcessorは他のBeanより先に生成されるため、staticメソッドで定義してSqlLogListenerは遅延取得する
+  @Bean
+  public static BeanPostProcessor sqlLogDataSourcePostProcessor(ObjectProvider<SqlLogListener> sqlLogListener) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return DataSourceListeners.attach(bean, beanName, sqlLogListener::getObject);
+      }
+    };
+  }
+}
@@ -0,0 +1,19 @@
+package net.javaguides.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// SQLログの設定
+// ログの出力有無はロガー（net.javaguides.springboot.sql）のレベルで切り替える（/actuator/loggers で実行中に変更できる）
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.sql-log")
+public class SqlLogProperties {
+
+  private boolean enabled = true;
+  // DEBUGが有効な場合にログを出力するSQLの割合（0.0〜1.0）
+  private double sampleRate = 0.1;
+  // trueの場合はバインドパラメーターの値も出力する（個人情報が含まれるため既定では出力しない）
+  private boolean includeParameters = false;
+}
@@ -1,22 +1,61 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import net.javaguides.springboot.exception.ResourceVersionMismatchException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeePage;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+import net.javaguides.springboot.model.EmployeeSyncCursor;
+import net.javaguides.springboot.model.EmployeeSyncPage;
+import net.javaguides.springboot.service.EmployeeSearchService;
 import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService.WriteStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/employees")
+@Profile("!reactive")
 public class EmployeeController {
 
+  private static final String PREFER = "Prefer";
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+  private static final String RESPOND_ASYNC = "respond-async";
+  // キーセットページングでlimitを省略した場合の件数
+  private static final int DEFAULT_PAGE_SIZE = 100;
+
   private EmployeeService employeeService;
+  private EmployeeSearchService employeeSearchService;
+  private ObjectMapper objectMapper;
+  // employee.write-behind.enabled=true の場合のみ存在する
+  private ObjectProvider<EmployeeWriteBehindService> writeBehindService;
 
 
-  public EmployeeController(EmployeeService employeeService) {
+  public EmployeeController(EmployeeService employeeService, EmployeeSearchService employeeSearchService,
+                            ObjectMapper objectMapper, ObjectProvider<EmployeeWriteBehindService> writeBehindService) {
     this.employeeService = employeeService;
+    this.employeeSearchService = employeeSearchService;
+    this.objectMapper = objectMapper;
+    this.writeBehindService = writeBehindService;
   }
 
   @PostMapping
@@ -25,38 +64,243 @@ public class EmployeeController {
     return employeeService.saveEmployee(employee);
   }
 
+  // Prefer ヘッダー（RFC 7240）に respond-async が含まれる場合（例: Prefer: respond-async, wait=10）、
+  // ジャーナルに記録した時点で202と追跡IDを返し、DBへはまとめて書き込む
+  // 必須項目がない・長すぎるなど、書き込めないことが分かっている登録は受け付けずに400を返す
+  // respond-async が含まれない場合や、非同期登録が無効な場合は通常どおり登録して201を返す
+  @PostMapping(headers = PREFER)
+  public ResponseEntity<?> createEmployeeAsync(@RequestHeader(PREFER) List<String> preferences,
+                                               @RequestBody Employee employee) {
+    EmployeeWriteBehindService writeBehind = writeBehindService.getIfAvailable();
+    if (writeBehind == null || !prefersRespondAsync(preferences)) {
+      return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+    }
+    WriteStatus status = writeBehind.submit(employee);
+    return ResponseEntity.accepted()
+      .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+      .location(URI.create("/api/employees/writes/" + status.trackingId()))
+      .body(status);
+  }
+
+  // 非同期登録の状態（PENDING / WRITTEN / FAILED）を返す
+  @GetMapping("writes/{trackingId}")
+  public ResponseEntity<WriteStatus> getWriteStatus(@PathVariable("trackingId") UUID trackingId) {
+    EmployeeWriteBehindService writeBehind = writeBehindService.getIfAvailable();
+    if (writeBehind == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return writeBehind.getStatus(trackingId)
+      .map(ResponseEntity::ok)
+      .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  // 複数件を一括登録する（JDBCバッチINSERTを利用）
+  @PostMapping("batch")
+  @ResponseStatus(HttpStatus.CREATED)
+  public List<Employee> createEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
+  }
+
   @GetMapping
   public List<Employee> getAllEmployees() {
     return employeeService.getAllEmployees();
   }
 
+  // 指定した項目だけを返す: /api/employees?fields=id,email
+  // 指定できる項目は id, firstName, lastName, email, version（それ以外は400）
+  @GetMapping(params = {"fields", "!limit", "!after", "!modifiedSince", "!cursor"})
+  public List<Map<String, Object>> getAllEmployeeFields(@RequestParam("fields") List<String> fields) {
+    return employeeService.getAllEmployeeFields(fields);
+  }
+
+  // 差分同期: /api/employees?modifiedSince={ISO-8601日時}&limit={N}
+  // 指定日時以降に登録・更新された従業員と、削除された従業員のid（tombstone）を返す
+  // 続きはレスポンスのcursorを次回の cursor に指定して取得する（削除の記録の保持期間より古い場合は410）
+  @GetMapping(params = {"modifiedSince", "!cursor"})
+  public EmployeeSyncPage getEmployeesModifiedSince(
+    @RequestParam("modifiedSince") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince,
+    @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+    return employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(modifiedSince), limit);
+  }
+
+  // 差分同期の続き: /api/employees?cursor={前回のcursor}&limit={N}
+  // 同じ日時の変更が上限件数より多い場合も、前回の位置から重複なく続きを返す
+  @GetMapping(params = {"cursor", "!modifiedSince"})
+  public EmployeeSyncPage getEmployeesModifiedAfter(@RequestParam("cursor") EmployeeSyncCursor cursor,
+                                                    @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+    return employeeService.getEmployeesModifiedSince(cursor, limit);
+  }
+
+  // キーセットページング: /api/employees?after={id}&limit={N}
+  // レスポンスのnextCursorを次回のafterに指定して全件を一定メモリで走査する
+  @GetMapping(params = {"limit", "!modifiedSince", "!cursor"})
+  public EmployeePage getEmployees(@RequestParam(name = "after", defaultValue = "0") long after,
+                                   @RequestParam("limit") int limit) {
+    return employeeService.getEmployees(after, limit);
+  }
+
+  // limitを省略した場合（/api/employees?after={id}）も全件を返さず、キーセットページングで既定の件数を返す
+  @GetMapping(params = {"after", "!limit", "!modifiedSince", "!cursor"})
+  public EmployeePage getEmployees(@RequestParam("after") long after) {
+    return employeeService.getEmployees(after, DEFAULT_PAGE_SIZE);
+  }
+
+  // 変更フィード: /api/employees/changes?since={seq}&limit={N}
+  // 返却された nextSince を次回の since に渡すと、続きの変更だけを取得できる
+  // since の続きが保持期間（employee.outbox.retention）を過ぎて削除されている場合は410を返す（全件を取得し直す）
+  @GetMapping("changes")
+  public EmployeeChangePage getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                       @RequestParam(value = "limit", defaultValue = "100") int limit) {
+    return employeeService.getChanges(since, limit);
+  }
+
+  // 全件を改行区切りJSON(NDJSON)でストリーミング出力する
+  // レスポンスの書き込みは非同期スレッドで行われ、1行ずつ書き出すためヒープ使用量は件数に依存しない
+  // 全件の書き込みが終わるまでの時間は spring.mvc.async.request-timeout で制限する（コンテナの既定値では途中で切れる）
+  @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportEmployees() {
+    StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter writer = objectMapper.writer()
+        .withRootValueSeparator("\n")
+        .writeValues(outputStream)) {
+        employeeService.exportEmployees(employee -> {
+          try {
+            writer.write(employee);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok()
+      .contentType(MediaType.APPLICATION_NDJSON)
+      .body(body);
+  }
+
+  // 姓名で検索する: /api/employees/search?firstName={firstName}&lastName={lastName}
+  @GetMapping(value = "search", params = {"firstName", "lastName"})
+  public List<Employee> searchEmployeesByName(@RequestParam("firstName") String firstName,
+                                              @RequestParam("lastName") String lastName) {
+    return employeeService.getEmployeesByName(firstName, lastName);
+  }
+
+  // 名・姓・メールの前方一致検索（type-ahead用）: /api/employees/search?q={語}&limit={N}
+  // 索引から返すためDBにはアクセスしない
+  @GetMapping(value = "search", params = "q")
+  public List<EmployeeSearchHit> searchEmployees(@RequestParam("q") String query,
+                                                 @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    return employeeSearchService.search(query, limit);
+  }
+
+  // メールアドレスで1件取得する: /api/employees/search?email={email}
+  @GetMapping(value = "search", params = "email")
+  public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+    return employeeService.getEmployeeByEmail(email)
+      .map(employee -> ResponseEntity.ok()
+        .eTag(String.valueOf(employee.getVersion()))
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(employee))
+      .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  // バージョンをETagとして返す
+  // If-None-Matchが一致する場合、Springが本文をシリアライズせずに304を返す
+  // ETagはIf-Matchでバージョンとして使うため形式(JSON/Smile/CBOR)によらず同じ値にし、
+  // キャッシュが形式ごとに別のレスポンスとして扱うよう Vary: Accept を付ける
   @GetMapping("{id}")
   public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
     return employeeService.getEmployeeById(employeeId)
-      .map(ResponseEntity::ok)
+      .map(employee -> ResponseEntity.ok()
+        .eTag(String.valueOf(employee.getVersion()))
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(employee))
       .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
+  // If-Matchを指定した場合、バージョンが一致しなければ412を返す
   @PutMapping("{id}")
   public ResponseEntity<Employee> updateEmployeeById(@PathVariable("id") long employeeId,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                      @RequestBody Employee employee) {
+    Long expectedVersion = parseVersion(ifMatch);
     return employeeService.getEmployeeById(employeeId)
       .map(savedEmployee -> {
+        if (expectedVersion != null && expectedVersion != savedEmployee.getVersion()) {
+          throw new ResourceVersionMismatchException("Employee version does not match:" + employeeId);
+        }
         savedEmployee.setFirstName(employee.getFirstName());
         savedEmployee.setLastName(employee.getLastName());
         savedEmployee.setEmail(employee.getEmail());
 
         Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
 
-        return new ResponseEntity(updatedEmployee, HttpStatus.OK);
+        return ResponseEntity.ok()
+          .eTag(String.valueOf(updatedEmployee.getVersion()))
+          .varyBy(HttpHeaders.ACCEPT)
+          .body(updatedEmployee);
       })
       .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
+  // 部分更新: リクエストボディで指定した項目だけを更新する
+  // 更新後のエンティティは読み直さず、204を返す（該当する従業員がいなければ404）
+  // If-Matchを指定した場合、バージョンが一致しなければ412を返し、成功時は新しいETagを返す
+  @PatchMapping("{id}")
+  public ResponseEntity<Void> patchEmployeeById(@PathVariable("id") long employeeId,
+                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody Employee employee) {
+    Long expectedVersion = parseVersion(ifMatch);
+    if (!employeeService.patchEmployee(employeeId, expectedVersion, employee)) {
+      return ResponseEntity.notFound().build();
+    }
+    if (expectedVersion == null) {
+      return ResponseEntity.noContent().build();
+    }
+    return ResponseEntity.noContent()
+      .eTag(String.valueOf(expectedVersion + 1))
+      .build();
+  }
+
+  // 複数件を一括削除する: リクエストボディにidの配列を指定する
+  // チャンクごとに DELETE ... WHERE id IN (...) を発行する（ソフトデリート有効時は削除フラグを立てる）
+  @DeleteMapping
+  public ResponseEntity<Void> deleteEmployees(@RequestBody List<Long> employeeIds) {
+    employeeService.deleteEmployeesByIds(employeeIds);
+
+    return ResponseEntity.noContent().build();
+  }
+
   @DeleteMapping("{id}")
   public ResponseEntity<String> deleteEmployeeById(@PathVariable("id") long employeeId) {
     employeeService.deleteEmployeeById(employeeId);
 
     return new ResponseEntity<String>("OK", HttpStatus.OK);
   }
+
+  // Preferヘッダーの値はカンマ区切りの設定（各設定は token[=value][; parameter]）で、複数行に分かれている場合もある
+  // 設定名は大文字小文字を区別しない
+  private static boolean prefersRespondAsync(List<String> preferences) {
+    return preferences.stream()
+      .flatMap(value -> Arrays.stream(value.split(",")))
+      .map(preference -> preference.split("[=;]", 2)[0].trim())
+      .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+  }
+
+  // If-Matchヘッダーの値（"1" の形式のETag）からバージョンを取り出す
+  // 未指定または * の場合は条件なし(null)とし、弱いETagや解析できない値はバージョン不一致として扱う
+  private static Long parseVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String eTag = ifMatch.trim();
+    if (eTag.length() >= 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+      eTag = eTag.substring(1, eTag.length() - 1);
+    }
+    try {
+      return Long.valueOf(eTag);
+    } catch (NumberFormatException e) {
+      throw new ResourceVersionMismatchException("Invalid If-Match header:" + ifMatch, e);
+    }
+  }
 }
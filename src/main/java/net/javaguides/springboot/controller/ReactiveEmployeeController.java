@@ -0,0 +1,70 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.ReactiveEmployee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// EmployeeControllerのノンブロッキング版（reactiveプロファイルでのみ有効）
+// 同じURLで公開するため、プロファイルを切り替えて同じ負荷条件で比較できる
+@RestController
+@RequestMapping("/api/employees")
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+  private ReactiveEmployeeService employeeService;
+
+  public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+    this.employeeService = employeeService;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<ReactiveEmployee> createEmployee(@RequestBody ReactiveEmployee employee) {
+    return employeeService.saveEmployee(employee);
+  }
+
+  @GetMapping
+  public Flux<ReactiveEmployee> getAllEmployees() {
+    return employeeService.getAllEmployees();
+  }
+
+  // 姓名で検索する: /api/employees/search?firstName={firstName}&lastName={lastName}
+  @GetMapping(value = "search", params = {"firstName", "lastName"})
+  public Flux<ReactiveEmployee> searchEmployeesByName(@RequestParam("firstName") String firstName,
+                                                      @RequestParam("lastName") String lastName) {
+    return employeeService.getEmployeesByName(firstName, lastName);
+  }
+
+  @GetMapping("{id}")
+  public Mono<ResponseEntity<ReactiveEmployee>> getEmployeeById(@PathVariable("id") long employeeId) {
+    return employeeService.getEmployeeById(employeeId)
+      .map(ResponseEntity::ok)
+      .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PutMapping("{id}")
+  public Mono<ResponseEntity<ReactiveEmployee>> updateEmployeeById(@PathVariable("id") long employeeId,
+                                                                   @RequestBody ReactiveEmployee employee) {
+    return employeeService.getEmployeeById(employeeId)
+      .flatMap(savedEmployee -> {
+        savedEmployee.setFirstName(employee.getFirstName());
+        savedEmployee.setLastName(employee.getLastName());
+        savedEmployee.setEmail(employee.getEmail());
+
+        return employeeService.updateEmployee(savedEmployee);
+      })
+      .map(updatedEmployee -> new ResponseEntity<>(updatedEmployee, HttpStatus.OK))
+      .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @DeleteMapping("{id}")
+  public Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable("id") long employeeId) {
+    return employeeService.deleteEmployeeById(employeeId)
+      .thenReturn(new ResponseEntity<>("OK", HttpStatus.OK));
+  }
+}
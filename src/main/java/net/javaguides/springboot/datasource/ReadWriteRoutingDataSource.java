@@ -0,0 +1,37 @@
+package net.javaguides.springboot.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 読み取り専用トランザクションはレプリカ、それ以外はプライマリのコネクションを返すデータソース
+// トランザクション開始時点ではreadOnlyフラグが未設定のため、LazyConnectionDataSourceProxyでラップし
+// 最初のSQL実行時までコネクションの取得を遅らせて使用する
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Route {
+    PRIMARY, REPLICA
+  }
+
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+  // 現在のスレッドの読み取りをプライマリに固定する（read-your-writes）
+  public static void pinToPrimary() {
+    PINNED_TO_PRIMARY.set(Boolean.TRUE);
+  }
+
+  public static void unpin() {
+    PINNED_TO_PRIMARY.remove();
+  }
+
+  public static boolean isPinnedToPrimary() {
+    return PINNED_TO_PRIMARY.get() != null;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPinnedToPrimary()) {
+      return Route.REPLICA;
+    }
+    return Route.PRIMARY;
+  }
+}
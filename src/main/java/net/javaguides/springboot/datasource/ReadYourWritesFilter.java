@@ -0,0 +1,103 @@
+package net.javaguides.springboot.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+// 書き込みを行ったクライアントの読み取りを一定時間プライマリに固定するフィルター
+// - GET/HEAD/OPTIONS以外のリクエストは書き込みとみなし、リクエスト中の読み取りもプライマリで行う
+//   レスポンスには固定期限を表すCookieを付与する（レスポンス本文の書き込み前に付与するため、処理の前に設定する）
+// - Cookieの期限内のリクエストは読み取りもプライマリで行う
+// Cookieの値は「期限.署名」とし、署名（HMAC-SHA256）が一致しない値は無視する
+// クライアントが期限を書き換えてすべての読み取りをプライマリに向けることはできず、期限も now + window までに切り詰める
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE_NAME = "employee-primary-until";
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  private final Duration window;
+  private final SecretKeySpec key;
+
+  public ReadYourWritesFilter(Duration window, byte[] secret) {
+    this.window = window;
+    this.key = new SecretKeySpec(secret, MAC_ALGORITHM);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    if (isWrite(request)) {
+      Cookie cookie = new Cookie(COOKIE_NAME, sign(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+      ReadWriteRoutingDataSource.pinToPrimary();
+    } else if (Math.min(primaryUntil(request), now + window.toMillis()) > now) {
+      ReadWriteRoutingDataSource.pinToPrimary();
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReadWriteRoutingDataSource.unpin();
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    String method = request.getMethod();
+    return !method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS");
+  }
+
+  // 署名が一致するCookieの期限（Cookieがない・改ざんされている場合は0）
+  private long primaryUntil(HttpServletRequest request) {
+    if (request.getCookies() == null) {
+      return 0;
+    }
+    for (Cookie cookie : request.getCookies()) {
+      if (cookie.getName().equals(COOKIE_NAME)) {
+        String value = cookie.getValue();
+        int separator = value.indexOf('.');
+        if (separator < 0 || !MessageDigest.isEqual(
+          value.getBytes(StandardCharsets.US_ASCII), sign(value.substring(0, separator)).getBytes(StandardCharsets.US_ASCII))) {
+          return 0;
+        }
+        try {
+          return Long.parseLong(value.substring(0, separator));
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+
+  private String sign(long until) {
+    return sign(String.valueOf(until));
+  }
+
+  private String sign(String until) {
+    try {
+      // Macはスレッドセーフではないため、リクエストごとに生成する
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(key);
+      byte[] signature = mac.doFinal(until.getBytes(StandardCharsets.US_ASCII));
+      return until + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to sign " + COOKIE_NAME, e);
+    }
+  }
+}
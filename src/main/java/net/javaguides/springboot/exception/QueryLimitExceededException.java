@@ -0,0 +1,12 @@
+package net.javaguides.springboot.exception;
+
+public class QueryLimitExceededException extends RuntimeException {
+
+  public QueryLimitExceededException(String message) {
+    super(message);
+  }
+
+  public QueryLimitExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
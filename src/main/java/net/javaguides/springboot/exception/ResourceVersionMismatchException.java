@@ -0,0 +1,16 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ResourceVersionMismatchException extends RuntimeException {
+
+  public ResourceVersionMismatchException(String message) {
+    super(message);
+  }
+
+  public ResourceVersionMismatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,17 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// 削除の記録（tombstone）や変更フィードの保持期間より前からの差分同期は行えないため、全件を取得し直す必要がある
+@ResponseStatus(HttpStatus.GONE)
+public class SyncWindowExpiredException extends RuntimeException {
+
+  public SyncWindowExpiredException(String message) {
+    super(message);
+  }
+
+  public SyncWindowExpiredException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
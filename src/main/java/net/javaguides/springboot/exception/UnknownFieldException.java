@@ -0,0 +1,16 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownFieldException extends RuntimeException {
+
+  public UnknownFieldException(String message) {
+    super(message);
+  }
+
+  public UnknownFieldException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,16 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindQueueFullException extends RuntimeException {
+
+  public WriteBehindQueueFullException(String message) {
+    super(message);
+  }
+
+  public WriteBehindQueueFullException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,211 @@
+package net.javaguides.springboot.migration;
+
+import net.javaguides.springboot.config.SchemaMigrationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// バージョン付きのSQLマイグレーションを起動時に適用する
+// - db/migration/{vendor}/V<バージョン>__<説明>.sql をバージョン順に、未適用のものだけ実行する
+// - 適用したバージョンとチェックサムを履歴テーブルに記録し、適用済みのファイルが変更されていた場合は起動を止める
+// - MySQLでは複数のインスタンスが同時に起動しても1つずつ適用されるよう、名前付きロック（GET_LOCK）を取得する
+// 適用済みのスキーマではファイルの一覧と履歴を比較するだけで、スキーマ全体の読み込み（ddl-auto=update）は行わない
+public class SchemaMigrator {
+
+  private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+  private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+  private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+  private final DataSource dataSource;
+  private final SchemaMigrationProperties properties;
+  private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+  public SchemaMigrator(DataSource dataSource, SchemaMigrationProperties properties) {
+    this.dataSource = dataSource;
+    this.properties = properties;
+  }
+
+  record Migration(int version, String description, Resource resource, long checksum) {
+  }
+
+  // 未適用のマイグレーションを適用し、適用した件数を返す
+  public int migrate() {
+    long start = System.nanoTime();
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(true);
+      String vendor = DatabaseDriver.fromJdbcUrl(connection.getMetaData().getURL()).getId();
+      List<Migration> migrations = findMigrations(vendor);
+      boolean mysql = DatabaseDriver.MYSQL.getId().equals(vendor);
+      if (mysql) {
+        lock(connection);
+      }
+      try {
+        int applied = apply(connection, migrations);
+        log.info("Schema migration: {} applied, {} total, {} ms", applied, migrations.size(),
+          (System.nanoTime() - start) / 1_000_000);
+        return applied;
+      } finally {
+        if (mysql) {
+          unlock(connection);
+        }
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Schema migration failed", e);
+    }
+  }
+
+  private int apply(Connection connection, List<Migration> migrations) throws SQLException {
+    createHistoryTable(connection);
+    Map<Integer, Long> appliedChecksums = findApplied(connection);
+    if (appliedChecksums.isEmpty() && properties.isBaselineOnMigrate() && tableExists(connection, "employees")) {
+      baseline(connection, migrations);
+      appliedChecksums = findApplied(connection);
+    }
+
+    int applied = 0;
+    for (Migration migration : migrations) {
+      Long checksum = appliedChecksums.get(migration.version());
+      if (checksum != null) {
+        // ベースラインとして記録したバージョン（チェックサム0）は比較しない
+        if (checksum != 0 && checksum != migration.checksum()) {
+          throw new IllegalStateException("Migration V" + migration.version() + " has been modified after it was applied: "
+            + migration.resource().getFilename());
+        }
+        continue;
+      }
+      log.info("Applying schema migration V{}: {}", migration.version(), migration.description());
+      ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+      record(connection, migration.version(), migration.description(), migration.checksum());
+      applied++;
+    }
+    return applied;
+  }
+
+  private List<Migration> findMigrations(String vendor) {
+    String location = properties.getLocation().replace("{vendor}", vendor);
+    try {
+      List<Migration> migrations = Arrays.stream(resourceResolver.getResources(location + "/V*__*.sql"))
+        .map(SchemaMigrator::toMigration)
+        .sorted(Comparator.comparingInt(Migration::version))
+        .toList();
+      if (migrations.isEmpty()) {
+        throw new IllegalStateException("No schema migrations found in " + location);
+      }
+      return migrations;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Migration toMigration(Resource resource) {
+    Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+    if (!matcher.matches()) {
+      throw new IllegalStateException("Invalid schema migration file name: " + resource.getFilename());
+    }
+    try {
+      CRC32 crc32 = new CRC32();
+      crc32.update(resource.getContentAsByteArray());
+      return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), resource,
+        crc32.getValue());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void createHistoryTable(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("create table if not exists " + properties.getTable()
+        + " (version int not null, description varchar(200) not null, checksum bigint not null,"
+        + " installed_at timestamp not null, primary key (version))");
+    }
+  }
+
+  private Map<Integer, Long> findApplied(Connection connection) throws SQLException {
+    Map<Integer, Long> applied = new HashMap<>();
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("select version, checksum from " + properties.getTable())) {
+      while (resultSet.next()) {
+        applied.put(resultSet.getInt(1), resultSet.getLong(2));
+      }
+    }
+    return applied;
+  }
+
+  // マイグレーション導入前に ddl-auto=update で作成されたスキーマは、baseline-version までのマイグレーションを
+  // 実行せずに適用済みとして記録する（それより後のマイグレーションは通常どおり適用する）
+  private void baseline(Connection connection, List<Migration> migrations) throws SQLException {
+    log.info("Existing schema without migration history, baselining at V{}", properties.getBaselineVersion());
+    for (Migration migration : migrations) {
+      if (migration.version() <= properties.getBaselineVersion()) {
+        record(connection, migration.version(), "<< baseline >> " + migration.description(), 0);
+      }
+    }
+  }
+
+  private void record(Connection connection, int version, String description, long checksum) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("insert into " + properties.getTable()
+      + " (version, description, checksum, installed_at) values (?, ?, ?, ?)")) {
+      statement.setInt(1, version);
+      statement.setString(2, description);
+      statement.setLong(3, checksum);
+      statement.setTimestamp(4, Timestamp.from(Instant.now()));
+      statement.executeUpdate();
+    }
+  }
+
+  // 識別子を大文字で保持するDB（DATABASE_TO_LOWERを指定しないH2など）では大文字で検索する
+  private static boolean tableExists(Connection connection, String table) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+    try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, new String[] {"TABLE"})) {
+      return tables.next();
+    }
+  }
+
+  private void lock(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("select get_lock(?, ?)")) {
+      statement.setString(1, properties.getTable());
+      statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next() || resultSet.getInt(1) != 1) {
+          throw new IllegalStateException("Could not acquire the schema migration lock within "
+            + LOCK_TIMEOUT_SECONDS + " seconds");
+        }
+      }
+    }
+  }
+
+  private void unlock(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("select release_lock(?)")) {
+      statement.setString(1, properties.getTable());
+      statement.executeQuery().close();
+    }
+  }
+}
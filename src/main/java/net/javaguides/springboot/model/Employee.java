@@ -1,7 +1,17 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
 
 // lombokのアノテーション
 // getterの生成
@@ -11,15 +21,39 @@ import lombok.*;
 @AllArgsConstructor
 // デフォルトコンストラクタを自動生成
 @NoArgsConstructor
-// Builderメソッドを生成
-@Builder
+// Builderメソッドを生成（toBuilderで複製にも使用する）
+@Builder(toBuilder = true)
 // JPA Entityとしてクラス生成するため、アノテーション追加
 @Entity
 // テーブル生成時の名前を設定
-@Table(name ="employees")
+// emailにユニーク制約（ユニークインデックス）を付与し、重複チェックとメール検索をインデックスで行う
+// 姓名での検索用に (last_name, first_name) の複合インデックスを付与する
+// 物理削除ジョブが削除フラグの付いた行を探すため deleted にインデックスを付与する
+// 差分同期（modifiedSince）で更新日時の範囲を検索するため updated_at にインデックスを付与する
+@Table(name ="employees", uniqueConstraints = {
+  @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")
+}, indexes = {
+  @Index(name = "idx_employees_last_name_first_name", columnList = "last_name, first_name"),
+  @Index(name = "idx_employees_deleted", columnList = "deleted"),
+  @Index(name = "idx_employees_updated_at", columnList = "updated_at")
+})
+// 登録日時・更新日時をSpring Data JPAの監査機能で設定する（EmployeeSyncConfigで有効化）
+@EntityListeners(AuditingEntityListener.class)
+// ソフトデリートされた行はエンティティの読み込み・JPQLの対象から除外する（ネイティブクエリは各クエリで除外する）
+@SQLRestriction("deleted = false")
+// 2次キャッシュの対象にする（employee.cache.enabled=true の場合のみ有効）
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Employee {
+
+  public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+  // IDENTITYはINSERTのたびにIDを取得する必要があり、HibernateのJDBCバッチINSERTが無効になる
+  // シーケンス（MySQLではテーブルでエミュレート）から allocationSize 分のIDをまとめて払い出す
+  // 既存のDBではマイグレーション（V4）がシーケンスを登録済みの最大IDの次から始める
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+  @SequenceGenerator(name = "employee_seq", sequenceName = "employees_seq", allocationSize = 50)
   private long id;
 
   @Column(name = "first_name" , nullable = false)
@@ -29,4 +63,28 @@ public class Employee {
 
   @Column(nullable = false)
   private String email;
+
+  // 楽観ロック用のバージョン（更新のたびにHibernateが+1し、UPDATE文の条件に含める）
+  // ETagとして公開し、If-Matchによる条件付き更新に使用する（リクエストボディからは設定できない）
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  // ソフトデリートの削除フラグ（employee.delete.soft-delete=true の場合のみ使用する）
+  // 物理削除されるまではメールアドレスのユニーク制約も残る
+  @JsonIgnore
+  @Column(nullable = false)
+  private boolean deleted;
+
+  // 監査項目（リクエストボディからは設定できない）
+  // 既存の行に列を追加できるよう NULL を許可している（列の追加前からある行は差分同期の対象にならない）
+  @CreatedDate
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "created_at", updatable = false)
+  private Instant createdAt;
+
+  @LastModifiedDate
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "updated_at")
+  private Instant updatedAt;
 }
@@ -0,0 +1,15 @@
+package net.javaguides.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+// 変更フィードの1件（seqを次回の since に渡すと続きを取得できる）
+public record EmployeeChange(long seq, long employeeId, EmployeeOutboxEvent.Type type, Instant occurredAt,
+                             @JsonRawValue String employee) {
+
+  public static EmployeeChange of(EmployeeOutboxEvent event) {
+    return new EmployeeChange(event.getPublishedSeq(), event.getEmployeeId(), event.getType(),
+      event.getCreatedAt(), event.getPayload());
+  }
+}
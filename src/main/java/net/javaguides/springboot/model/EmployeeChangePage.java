@@ -0,0 +1,16 @@
+package net.javaguides.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// 変更フィードの取得結果
+// nextSinceを次回リクエストの since パラメータに渡すと続きの変更を取得できる（新しい変更がない場合は since のまま）
+@Getter
+@AllArgsConstructor
+public class EmployeeChangePage {
+
+  private List<EmployeeChange> changes;
+  private long nextSince;
+}
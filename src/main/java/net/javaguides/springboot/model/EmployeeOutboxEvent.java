@@ -0,0 +1,59 @@
+package net.javaguides.springboot.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+
+import java.time.Instant;
+
+// Employeeの変更イベント（トランザクショナル・アウトボックス）
+// 変更と同じトランザクションで登録し、リレーがコミット済みのイベントに連番(published_seq)を振って配信する
+// DELETED は差分同期（modifiedSince）の削除の記録（tombstone）としても使用する
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_outbox", uniqueConstraints = {
+  @UniqueConstraint(name = "uk_employee_outbox_published_seq", columnNames = "published_seq")
+}, indexes = {
+  @Index(name = "idx_employee_outbox_published_at", columnList = "published_at"),
+  @Index(name = "idx_employee_outbox_type_created_at", columnList = "type, created_at")
+})
+public class EmployeeOutboxEvent {
+
+  public enum Type { CREATED, UPDATED, PATCHED, DELETED }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_outbox_seq")
+  @SequenceGenerator(name = "employee_outbox_seq", sequenceName = "employee_outbox_seq", allocationSize = 50)
+  private long id;
+
+  @Column(name = "employee_id", nullable = false)
+  private long employeeId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Type type;
+
+  // 変更後のEmployeeのJSON（PATCHEDは変更された項目だけ、DELETEDはnull）
+  // 長さを指定しないとMySQLでは tinytext（255バイト）になるため、longtext になる長さを指定する
+  @Lob
+  @Column(length = Length.LONG32)
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  // リレーが配信した順に振る連番（GET /api/employees/changes?since= のカーソル）。未配信の間はnull
+  @Column(name = "published_seq")
+  private Long publishedSeq;
+
+  @Column(name = "published_at")
+  private Instant publishedAt;
+}
@@ -0,0 +1,17 @@
+package net.javaguides.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// キーセット（カーソル）方式のページング結果
+// nextCursorを次回リクエストの after パラメータに渡すと続きのページを取得できる
+// 最終ページの場合 nextCursor は null になる
+@Getter
+@AllArgsConstructor
+public class EmployeePage {
+
+  private List<Employee> employees;
+  private Long nextCursor;
+}
@@ -0,0 +1,15 @@
+package net.javaguides.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 前方一致検索の結果（索引に保持している項目だけを返し、DBにはアクセスしない）
+@Getter
+@AllArgsConstructor
+public class EmployeeSearchHit {
+
+  private long id;
+  private String firstName;
+  private String lastName;
+  private String email;
+}
@@ -0,0 +1,59 @@
+package net.javaguides.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.Locale;
+
+// 差分同期の位置（この位置までの変更は返却済み）
+// 変更は (日時, 種類（更新→削除の順）, id) の順に並べるため、同じ日時の変更が上限件数より多くても続きから取得できる
+// idは更新なら従業員のid、削除ならアウトボックスのイベントのid
+// 文字列表現: <ISO-8601日時>,<employee|deleted>,<id>（例: 2024-06-01T00:00:00Z,deleted,1234）
+public record EmployeeSyncCursor(Instant timestamp, Kind kind, long id) implements Comparable<EmployeeSyncCursor> {
+
+  public enum Kind { EMPLOYEE, DELETED }
+
+  private static final Comparator<EmployeeSyncCursor> ORDER = Comparator.comparing(EmployeeSyncCursor::timestamp)
+    .thenComparing(EmployeeSyncCursor::kind)
+    .thenComparingLong(EmployeeSyncCursor::id);
+
+  // 指定した日時以降のすべての変更を返す位置（idは1から採番されるため、0はその日時の最初の更新より前になる）
+  public static EmployeeSyncCursor since(Instant timestamp) {
+    return new EmployeeSyncCursor(timestamp, Kind.EMPLOYEE, 0);
+  }
+
+  public static EmployeeSyncCursor of(Employee employee) {
+    return new EmployeeSyncCursor(employee.getUpdatedAt(), Kind.EMPLOYEE, employee.getId());
+  }
+
+  public static EmployeeSyncCursor of(EmployeeOutboxEvent deleted) {
+    return new EmployeeSyncCursor(deleted.getCreatedAt(), Kind.DELETED, deleted.getId());
+  }
+
+  // リクエストパラメーターからの変換に使用する（解析できない値は400になる）
+  public static EmployeeSyncCursor valueOf(String value) {
+    String[] parts = value.split(",");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid sync cursor:" + value);
+    }
+    try {
+      return new EmployeeSyncCursor(Instant.parse(parts[0].trim()),
+        Kind.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)), Long.parseLong(parts[2].trim()));
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid sync cursor:" + value, e);
+    }
+  }
+
+  @Override
+  public int compareTo(EmployeeSyncCursor other) {
+    return ORDER.compare(this, other);
+  }
+
+  @JsonValue
+  @Override
+  public String toString() {
+    return timestamp + "," + kind.name().toLowerCase(Locale.ROOT) + "," + id;
+  }
+}
@@ -0,0 +1,21 @@
+package net.javaguides.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// 差分同期の結果
+// cursorを次回リクエストの cursor に渡すと、続きの登録・更新・削除だけを取得できる
+// 件数が上限を超えた場合も、同じ日時の変更の途中から重複なく続きを取得する
+// watermarkはcursorの日時で、これより前の変更はすべて返却済みであることを表す
+@Getter
+@AllArgsConstructor
+public class EmployeeSyncPage {
+
+  private List<Employee> employees;
+  private List<EmployeeTombstone> deleted;
+  private Instant watermark;
+  private EmployeeSyncCursor cursor;
+}
@@ -0,0 +1,7 @@
+package net.javaguides.springboot.model;
+
+import java.time.Instant;
+
+// 差分同期で返す削除の記録
+public record EmployeeTombstone(long id, Instant deletedAt) {
+}
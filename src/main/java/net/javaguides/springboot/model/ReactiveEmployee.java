@@ -0,0 +1,51 @@
+package net.javaguides.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+// reactiveプロファイル(R2DBC)用のEmployee
+// Employeeと同じ employees テーブルにマッピングし、JSONの形式もEmployeeと同じになる
+// JPAのリポジトリスキャンの対象にならないよう、@Entityを付けた Employee とはクラスを分けている
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+// カラム名はフィールド名からスネークケース（first_name など）に自動変換される
+@Table("employees")
+public class ReactiveEmployee {
+
+  @Id
+  private long id;
+
+  private String firstName;
+  private String lastName;
+
+  private String email;
+
+  // Employeeと同じ version カラム（楽観ロック用）
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  // Employeeと同じ deleted カラム（reactiveプロファイルでは常に物理削除し、JPA側でソフトデリートされた行は検索から除外する）
+  @JsonIgnore
+  private boolean deleted;
+
+  // Employeeと同じ created_at / updated_at カラム（ReactiveConfigのR2DBC監査機能で設定する）
+  @CreatedDate
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private Instant createdAt;
+
+  @LastModifiedDate
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private Instant updatedAt;
+}
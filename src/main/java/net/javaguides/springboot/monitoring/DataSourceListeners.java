@@ -0,0 +1,34 @@
+package net.javaguides.springboot.monitoring;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+// データソースにSQL実行のリスナーを登録する（BeanPostProcessorから使用する）
+// 既にdatasource-proxyでラップされている場合は同じプロキシにリスナーを追加し、プロキシを二重にしない
+// 他のデータソースに処理を委譲するだけのデータソース（レプリカへのルーティングなど）はラップせず、二重に数えないようにする
+public final class DataSourceListeners {
+
+  private DataSourceListeners() {
+  }
+
+  public static Object attach(Object bean, String beanName, Supplier<? extends QueryExecutionListener> listener) {
+    if (bean instanceof ProxyDataSource proxyDataSource) {
+      proxyDataSource.getProxyConfig().getQueryListener().addListener(listener.get());
+      return bean;
+    }
+    if (bean instanceof DataSource dataSource
+      && !(bean instanceof DelegatingDataSource) && !(bean instanceof AbstractRoutingDataSource)) {
+      return ProxyDataSourceBuilder.create(dataSource)
+        .name(beanName)
+        .listener(listener.get())
+        .build();
+    }
+    return bean;
+  }
+}
@@ -0,0 +1,123 @@
+package net.javaguides.springboot.monitoring;
+
+import net.javaguides.springboot.config.QueryMonitorProperties;
+import net.javaguides.springboot.exception.QueryLimitExceededException;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Instant;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Collectors;
+
+// データソースプロキシ経由で実行されたSQLを監視するリスナー
+// - slow-query-threshold 以上かかったSQLを、呼び出し元のクラス・メソッドとともに記録する
+// - リクエストごとのSQL実行回数を数え、max-statements-per-request を超えたリクエストを記録する
+//   （bulk-requests に指定した一括処理のリクエストは数えない）
+// 記録は直近 history-size 件だけ保持する
+public class QueryMonitor implements QueryExecutionListener {
+
+  private static final String APPLICATION_PACKAGE = "net.javaguides.springboot.";
+  private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+  private final QueryMonitorProperties properties;
+  private final Deque<SlowQuery> slowQueries = new ConcurrentLinkedDeque<>();
+  private final Deque<RequestViolation> requestViolations = new ConcurrentLinkedDeque<>();
+  private final ThreadLocal<RequestStatements> currentRequest = new ThreadLocal<>();
+
+  public QueryMonitor(QueryMonitorProperties properties) {
+    this.properties = properties;
+  }
+
+  public record SlowQuery(Instant timestamp, long elapsedMillis, String query, String caller) {
+  }
+
+  public record RequestViolation(Instant timestamp, String request, int maxStatements) {
+  }
+
+  public record Report(long slowQueryThresholdMillis, int maxStatementsPerRequest,
+                       List<SlowQuery> slowQueries, List<RequestViolation> requestViolations) {
+  }
+
+  // 現在のスレッドで処理するリクエストのSQL実行回数の計測を開始する
+  public void beginRequest(String request) {
+    if (properties.getBulkRequests().contains(request)) {
+      currentRequest.remove();
+      return;
+    }
+    currentRequest.set(new RequestStatements(request));
+  }
+
+  // 計測を終了し、リクエスト中に実行されたSQLの数を返す
+  public int endRequest() {
+    RequestStatements request = currentRequest.get();
+    currentRequest.remove();
+    return request == null ? 0 : request.count;
+  }
+
+  public Report report() {
+    return new Report(properties.getSlowQueryThreshold().toMillis(), properties.getMaxStatementsPerRequest(),
+      List.copyOf(slowQueries), List.copyOf(requestViolations));
+  }
+
+  public void reset() {
+    slowQueries.clear();
+    requestViolations.clear();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    RequestStatements request = currentRequest.get();
+    // 上限を超えた時点で1リクエストにつき1回だけ記録する
+    if (request != null && ++request.count == properties.getMaxStatementsPerRequest() + 1) {
+      record(requestViolations, new RequestViolation(Instant.now(), request.request, properties.getMaxStatementsPerRequest()));
+      if (properties.isFailOnViolation()) {
+        throw new QueryLimitExceededException("More than " + properties.getMaxStatementsPerRequest()
+          + " statements in one request (possible N+1): " + request.request);
+      }
+    }
+
+    if (execInfo.getElapsedTime() >= properties.getSlowQueryThreshold().toMillis()) {
+      String query = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+      // スタックの走査は遅いSQLの場合だけ行う
+      record(slowQueries, new SlowQuery(Instant.now(), execInfo.getElapsedTime(), query, findCaller()));
+      if (properties.isFailOnViolation()) {
+        throw new QueryLimitExceededException("Slow query (" + execInfo.getElapsedTime() + " ms): " + query);
+      }
+    }
+  }
+
+  private <T> void record(Deque<T> history, T entry) {
+    history.addFirst(entry);
+    while (history.size() > properties.getHistorySize()) {
+      history.pollLast();
+    }
+  }
+
+  // SQLを発行したアプリケーションのクラス・メソッド（サービスなど）をスタックから探す
+  private static String findCaller() {
+    return STACK_WALKER.walk(frames -> frames
+      .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+        && !frame.getClassName().startsWith(QueryMonitor.class.getPackageName())
+        && !frame.getClassName().contains("$$"))
+      .map(frame -> frame.getClassName().substring(APPLICATION_PACKAGE.length()) + "." + frame.getMethodName())
+      .findFirst()
+      .orElse("unknown"));
+  }
+
+  private static class RequestStatements {
+
+    private final String request;
+    private int count;
+
+    RequestStatements(String request) {
+      this.request = request;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package net.javaguides.springboot.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+// 遅いSQLとSQL実行回数の上限を超えたリクエストの一覧: GET /actuator/queries（DELETEでクリア）
+@Endpoint(id = "queries")
+public class QueryMonitorEndpoint {
+
+  private final QueryMonitor queryMonitor;
+
+  public QueryMonitorEndpoint(QueryMonitor queryMonitor) {
+    this.queryMonitor = queryMonitor;
+  }
+
+  @ReadOperation
+  public QueryMonitor.Report queries() {
+    return queryMonitor.report();
+  }
+
+  @DeleteOperation
+  public void reset() {
+    queryMonitor.reset();
+  }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// リクエストごとにSQL実行回数の計測範囲を設定するフィルター
+public class QueryMonitorFilter extends OncePerRequestFilter {
+
+  private final QueryMonitor queryMonitor;
+
+  public QueryMonitorFilter(QueryMonitor queryMonitor) {
+    this.queryMonitor = queryMonitor;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    queryMonitor.beginRequest(request.getMethod() + " " + request.getRequestURI());
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      queryMonitor.endRequest();
+    }
+  }
+}
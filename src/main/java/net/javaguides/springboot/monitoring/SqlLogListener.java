@@ -0,0 +1,64 @@
+package net.javaguides.springboot.monitoring;
+
+import net.javaguides.springboot.config.SqlLogProperties;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 実行されたSQLを、プレースホルダーのままの文・実行時間・バッチ件数とともにログに出力するリスナー
+// - ロガーのDEBUGが無効な場合（既定）はレベルの確認だけで戻る
+// - 有効な場合も sample-rate の割合のSQLだけを出力する
+// 出力はlogback-spring.xmlの非同期アペンダーが行うため、リクエストのスレッドで標準出力に書き込むことはない
+public class SqlLogListener implements QueryExecutionListener {
+
+  public static final String LOGGER_NAME = "net.javaguides.springboot.sql";
+  private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+  private final SqlLogProperties properties;
+
+  public SqlLogListener(SqlLogProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (!log.isDebugEnabled() || !sampled()) {
+      return;
+    }
+    for (QueryInfo queryInfo : queryInfoList) {
+      if (properties.isIncludeParameters()) {
+        log.debug("{} ms, success={}, batch={}, query=[{}], params={}", execInfo.getElapsedTime(), execInfo.isSuccess(),
+          execInfo.getBatchSize(), queryInfo.getQuery(), parameters(queryInfo));
+      } else {
+        log.debug("{} ms, success={}, batch={}, query=[{}]", execInfo.getElapsedTime(), execInfo.isSuccess(),
+          execInfo.getBatchSize(), queryInfo.getQuery());
+      }
+    }
+  }
+
+  private boolean sampled() {
+    double sampleRate = properties.getSampleRate();
+    return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  // バッチの場合は1行分ずつのパラメーターのリストになる
+  private static List<List<Object>> parameters(QueryInfo queryInfo) {
+    return queryInfo.getParametersList().stream()
+      .map(operations -> operations.stream()
+        .map(ParameterSetOperation::getArgs)
+        .filter(args -> args != null && args.length > 1)
+        .map(args -> args[1])
+        .toList())
+      .toList();
+  }
+}
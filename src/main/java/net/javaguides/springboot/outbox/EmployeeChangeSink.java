@@ -0,0 +1,12 @@
+package net.javaguides.springboot.outbox;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.List;
+
+// アウトボックスのリレーが変更イベントを配信する先
+// 例外を投げた場合、そのバッチは未配信のまま次回のリレーで再送される（at-least-once）
+public interface EmployeeChangeSink {
+
+  void publish(List<EmployeeChange> changes);
+}
@@ -0,0 +1,83 @@
+package net.javaguides.springboot.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.model.EmployeeOutboxEvent.Type;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Employeeの変更イベントをアウトボックステーブルに登録する
+// 変更と同じトランザクションで登録するため、トランザクション外から呼び出した場合は例外にする
+@Component
+@Profile("!reactive")
+public class EmployeeOutbox {
+
+  private final EmployeeOutboxRepository outboxRepository;
+  private final ObjectMapper objectMapper;
+
+  public EmployeeOutbox(EmployeeOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+    this.outboxRepository = outboxRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordSaved(Type type, List<Employee> employees) {
+    Instant now = Instant.now();
+    outboxRepository.saveAll(employees.stream()
+      .map(employee -> event(employee.getId(), type, toJson(employee), now))
+      .toList());
+  }
+
+  // PATCHでは更新後の行を読み込まないため、変更された項目だけを記録する
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordPatched(long id, Employee changes) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("id", id);
+    if (changes.getFirstName() != null) {
+      payload.put("firstName", changes.getFirstName());
+    }
+    if (changes.getLastName() != null) {
+      payload.put("lastName", changes.getLastName());
+    }
+    if (changes.getEmail() != null) {
+      payload.put("email", changes.getEmail());
+    }
+    outboxRepository.save(event(id, Type.PATCHED, toJson(payload), Instant.now()));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordDeleted(Collection<Long> ids) {
+    Instant now = Instant.now();
+    outboxRepository.saveAll(ids.stream()
+      .map(id -> event(id, Type.DELETED, null, now))
+      .toList());
+  }
+
+  private static EmployeeOutboxEvent event(long employeeId, Type type, String payload, Instant createdAt) {
+    return EmployeeOutboxEvent.builder()
+      .employeeId(employeeId)
+      .type(type)
+      .payload(payload)
+      .createdAt(createdAt)
+      .build();
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize employee change", e);
+    }
+  }
+}
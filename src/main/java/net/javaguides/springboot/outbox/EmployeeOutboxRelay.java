@@ -0,0 +1,64 @@
+package net.javaguides.springboot.outbox;
+
+import net.javaguides.springboot.config.EmployeeOutboxProperties;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// コミット済みの未配信イベントを batch-size 件ずつ取り出し、連番を振ってシンクに配信する
+// 連番はリレーが配信した順に振る（id はインスタンスごとにまとめて採番されるため、登録順・コミット順とは一致しない）
+// 未配信のイベントは FOR UPDATE SKIP LOCKED で取得するため、複数インスタンスのリレーが同じイベントを取り出すことはない
+// 連番は published_seq のユニーク制約で直列化する。同時に連番を振ったリレーはシンクに配信する前に制約違反でロールバックし、
+// そのバッチは次回に配信する。そのためコミット済みの連番は欠番なく増え続け、フィードの読み手は途中のイベントを取りこぼさない
+public class EmployeeOutboxRelay {
+
+  private final EmployeeOutboxRepository outboxRepository;
+  private final EmployeeChangeSink sink;
+  private final EmployeeOutboxProperties properties;
+
+  public EmployeeOutboxRelay(EmployeeOutboxRepository outboxRepository, EmployeeChangeSink sink,
+                             EmployeeOutboxProperties properties) {
+    this.outboxRepository = outboxRepository;
+    this.sink = sink;
+    this.properties = properties;
+  }
+
+  // 1バッチ分を配信し、配信した件数を返す
+  @Transactional
+  public int relay() {
+    List<EmployeeOutboxEvent> events =
+      outboxRepository.lockUnpublished(properties.getBatchSize());
+    if (events.isEmpty()) {
+      return 0;
+    }
+    long seq = outboxRepository.findMaxPublishedSeq();
+    Instant now = Instant.now();
+    for (EmployeeOutboxEvent event : events) {
+      event.setPublishedSeq(++seq);
+      event.setPublishedAt(now);
+    }
+    // 連番の重複はシンクに配信する前にユニーク制約違反として検知する
+    outboxRepository.flush();
+    // シンクへの配信に失敗した場合はロールバックし、連番も振り直す
+    sink.publish(events.stream().map(EmployeeChange::of).toList());
+    return events.size();
+  }
+
+  // 保持期間を過ぎた配信済みのイベントを削除する
+  // 最新のイベントは残し、すべて削除された後に連番が1から振り直されないようにする
+  public int purge() {
+    Instant before = Instant.now().minus(properties.getRetention());
+    long keepSeq = outboxRepository.findMaxPublishedSeq();
+    int purgedCount = 0;
+    int deletedCount;
+    do {
+      deletedCount = outboxRepository.deletePublishedBefore(before, keepSeq, properties.getBatchSize());
+      purgedCount += deletedCount;
+    } while (deletedCount == properties.getBatchSize());
+    return purgedCount;
+  }
+}
@@ -0,0 +1,39 @@
+package net.javaguides.springboot.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// 変更イベントをJSON Lines形式でファイルに追記する
+public class FileEmployeeChangeSink implements EmployeeChangeSink {
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+
+  public FileEmployeeChangeSink(Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public synchronized void publish(List<EmployeeChange> changes) {
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      StringBuilder lines = new StringBuilder();
+      for (EmployeeChange change : changes) {
+        lines.append(objectMapper.writeValueAsString(change)).append('\n');
+      }
+      Files.writeString(file, lines, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to publish employee changes:" + file, e);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package net.javaguides.springboot.outbox;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// メッセージブローカーの代わりに、直近 capacity 件の変更イベントをメモリに保持する
+public class InMemoryEmployeeChangeSink implements EmployeeChangeSink {
+
+  private final int capacity;
+  private final Deque<EmployeeChange> changes = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger size = new AtomicInteger();
+
+  public InMemoryEmployeeChangeSink(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public void publish(List<EmployeeChange> published) {
+    for (EmployeeChange change : published) {
+      changes.addLast(change);
+      if (size.incrementAndGet() > capacity && changes.pollFirst() != null) {
+        size.decrementAndGet();
+      }
+    }
+  }
+
+  public List<EmployeeChange> recent() {
+    return List.copyOf(changes);
+  }
+}
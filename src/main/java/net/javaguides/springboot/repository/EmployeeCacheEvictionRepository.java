@@ -0,0 +1,16 @@
+package net.javaguides.springboot.repository;
+
+import java.util.Collection;
+
+// 一括更新・削除した従業員だけを第2レベルキャッシュから外すためのリポジトリフラグメント（実装は EmployeeCacheEvictionRepositoryImpl）
+public interface EmployeeCacheEvictionRepository {
+
+  // 行単位でキャッシュを外すネイティブの更新・削除文に指定するクエリ空間
+  // どのエンティティのテーブルにも対応しないため、HibernateはEmployeeのリージョン全体を無効化しない
+  // （JPQLの一括更新・削除や、クエリ空間を指定しないネイティブクエリでは、リージョン全体が無効化される）
+  String ROW_EVICTION_QUERY_SPACE = "employees_row_eviction";
+
+  // 指定したidの従業員を第2レベルキャッシュから外す
+  // トランザクション内で呼び出した場合は、完了後にも再度外す（コミット前に他のトランザクションが読み込んだ古い値を残さない）
+  void evictFromCache(Collection<Long> ids);
+}
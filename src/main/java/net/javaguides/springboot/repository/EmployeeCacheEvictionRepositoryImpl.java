@@ -0,0 +1,35 @@
+package net.javaguides.springboot.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+// 第2レベルキャッシュが無効な場合、Cache#evict は何もしない
+public class EmployeeCacheEvictionRepositoryImpl implements EmployeeCacheEvictionRepository {
+
+  private final EntityManager entityManager;
+
+  public EmployeeCacheEvictionRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public void evictFromCache(Collection<Long> ids) {
+    List<Long> idList = List.copyOf(ids);
+    Cache cache = entityManager.getEntityManagerFactory().getCache();
+    idList.forEach(id -> cache.evict(Employee.class, id));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          idList.forEach(id -> cache.evict(Employee.class, id));
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package net.javaguides.springboot.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// 指定した項目だけを取得するためのリポジトリフラグメント（実装は EmployeeFieldsRepositoryImpl）
+public interface EmployeeFieldsRepository {
+
+  // 全従業員の指定した項目だけを、id順に 項目名 -> 値 のMapとして返す
+  List<Map<String, Object>> findAllFields(Collection<String> fields);
+}
@@ -0,0 +1,58 @@
+package net.javaguides.springboot.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import net.javaguides.springboot.exception.UnknownFieldException;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 指定した項目のカラムだけをSELECTするJPQLを組み立てる
+// エンティティではなくスカラー値(Tuple)として取得するため、永続化コンテキストの管理対象やスナップショットは作られない
+public class EmployeeFieldsRepositoryImpl implements EmployeeFieldsRepository {
+
+  // 取得できる項目（JSONのプロパティ名）。この一覧の値だけをJPQLに埋め込む
+  static final Set<String> FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
+  private final EntityManager entityManager;
+
+  public EmployeeFieldsRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Map<String, Object>> findAllFields(Collection<String> fields) {
+    Set<String> selectedFields = new LinkedHashSet<>(fields);
+    if (selectedFields.isEmpty()) {
+      throw new UnknownFieldException("No fields specified");
+    }
+    for (String field : selectedFields) {
+      if (!FIELDS.contains(field)) {
+        throw new UnknownFieldException("Unknown field:" + field);
+      }
+    }
+
+    String select = selectedFields.stream()
+      .map(field -> "e." + field + " as " + field)
+      .collect(Collectors.joining(", "));
+    List<Tuple> tuples = entityManager
+      .createQuery("select " + select + " from Employee e order by e.id", Tuple.class)
+      .getResultList();
+
+    return tuples.stream()
+      .map(tuple -> {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+          row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+      })
+      .toList();
+  }
+}
@@ -0,0 +1,49 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EmployeeOutboxRepository extends JpaRepository<EmployeeOutboxEvent, Long> {
+
+  // 未配信のイベントを id 順に limit 件ロックして取得する
+  // 他のリレーが配信中の行やコミット前のトランザクションが登録中の行は、ロックを待たずに飛ばす
+  @Query(value = "select * from employee_outbox where published_seq is null order by id limit :limit"
+    + " for update skip locked", nativeQuery = true)
+  List<EmployeeOutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+  @Query("select coalesce(max(e.publishedSeq), 0) from EmployeeOutboxEvent e")
+  long findMaxPublishedSeq();
+
+  // 保持期間内で最も古い配信済みイベントの連番（配信済みのイベントがなければ0）
+  @Query("select coalesce(min(e.publishedSeq), 0) from EmployeeOutboxEvent e")
+  long findMinPublishedSeq();
+
+  // 変更フィード（published_seqのユニーク制約のインデックスを使用する）
+  @Transactional(readOnly = true)
+  List<EmployeeOutboxEvent> findByPublishedSeqGreaterThanOrderByPublishedSeqAsc(long since, Limit limit);
+
+  // 差分同期用: (登録日時, id) が (since, afterId) より後で、登録日時が until より前のイベントを (登録日時, id) 順に取得する
+  // （(type, created_at) のインデックスを範囲検索する）
+  @Transactional(readOnly = true)
+  @Query("select e from EmployeeOutboxEvent e where e.type = :type and e.createdAt >= :since and e.createdAt < :until"
+    + " and (e.createdAt > :since or e.id > :afterId) order by e.createdAt, e.id")
+  List<EmployeeOutboxEvent> findByTypeCreatedAfter(@Param("type") EmployeeOutboxEvent.Type type,
+                                                   @Param("since") Instant since, @Param("afterId") long afterId,
+                                                   @Param("until") Instant until, Limit limit);
+
+  // 保持期間を過ぎた配信済みのイベントを limit 件ずつ削除する
+  // 連番が振り直されないよう、keepSeq（最新の連番）のイベントは残す
+  @Transactional
+  @Modifying
+  @Query(value = "delete from employee_outbox where published_at < :before and published_seq < :keepSeq limit :limit",
+    nativeQuery = true)
+  int deletePublishedBefore(@Param("before") Instant before, @Param("keepSeq") long keepSeq, @Param("limit") int limit);
+}
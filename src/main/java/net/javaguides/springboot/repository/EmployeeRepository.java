@@ -1,16 +1,122 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.QueryHint;
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// 宣言したクエリメソッドにはSpring Dataがトランザクションを付けないため、インターフェースに読み取り専用トランザクションを指定する
+// （呼び出し元がトランザクション外なら、レプリカが設定されている場合はレプリカから読む）
+// 更新・削除を行うメソッドには個別に @Transactional を指定して読み書きのトランザクションにする
+@Transactional(readOnly = true)
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeFieldsRepository,
+  EmployeeCacheEvictionRepository {
 
   Optional<Employee> findByEmail(String email);
 
+  // 姓名での検索（(last_name, first_name) の複合インデックスを使用する）
+  List<Employee> findByLastNameAndFirstName(String lastName, String firstName);
+
+  // 一括登録時のメール重複チェック用に、登録済みのメールアドレスだけを1回のIN句クエリで取得する
+  @Query("select e.email from Employee e where e.email in :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  // 主キー(id)をシークするキーセットページング用メソッド
+  // OFFSETを使わず where id > ? order by id limit ? を発行するため、主キーの範囲スキャンで済む
+  List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  // 全件エクスポート用のストリーム
+  // fetch sizeを指定してJDBCドライバから少しずつ行を読み込み、読み取り専用にしてスナップショットを保持しない
+  // MySQLではURLに useCursorFetch=true を指定するとサーバーサイドカーソルで fetch size 単位に取得される
+  // 呼び出し側はトランザクション内で使用し、try-with-resourcesでクローズすること
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HINT_READ_ONLY, value = "true"),
+    @QueryHint(name = HINT_CACHEABLE, value = "false")
+  })
+  @Query("select e from Employee e order by e.id")
+  Stream<Employee> streamAll();
+
+  // 部分更新用のUPDATE文（nullの項目は現在の値のまま）
+  // SELECTせずにUPDATE 1回で更新し、更新件数（0件なら該当なし、またはバージョン不一致）を返す
+  // versionを指定した場合はそのバージョンの行だけを更新する（楽観ロック）。バージョンは常に+1する
+  // JPQLの一括更新ではEmployeeの第2レベルキャッシュ全体が無効化されるため、行単位で外すクエリ空間を指定したネイティブクエリにする
+  // 呼び出し側は更新後に evictFromCache で更新した行だけをキャッシュから外すこと
+  // ネイティブクエリには@SQLRestrictionが適用されないため、ソフトデリートされた行を明示的に除外する
+  // 一括更新のため永続化コンテキストは更新後にクリアする
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_EVICTION_QUERY_SPACE))
+  @Query(value = "update employees set first_name = coalesce(:firstName, first_name),"
+    + " last_name = coalesce(:lastName, last_name),"
+    + " email = coalesce(:email, email),"
+    + " version = version + 1,"
+    + " updated_at = :updatedAt"
+    + " where id = :id and version = coalesce(:version, version) and deleted = false", nativeQuery = true)
+  int updatePartially(@Param("id") long id,
+                      @Param("version") Long version,
+                      @Param("firstName") String firstName,
+                      @Param("lastName") String lastName,
+                      @Param("email") String email,
+                      @Param("updatedAt") Instant updatedAt);
+
+  // 差分同期用: (更新日時, id) が (since, afterId) より後で、更新日時が until より前の従業員を (更新日時, id) 順に取得する
+  // updated_at のインデックス（InnoDBでは主キーを含むため (updated_at, id) の順）を範囲検索する
+  @Query("select e from Employee e where e.updatedAt >= :since and e.updatedAt < :until"
+    + " and (e.updatedAt > :since or e.id > :afterId) order by e.updatedAt, e.id")
+  List<Employee> findModifiedAfter(@Param("since") Instant since, @Param("afterId") long afterId,
+                                   @Param("until") Instant until, Limit limit);
+
+  // 指定したidのうち、存在する（ソフトデリートされていない）従業員のidを行ロックを取得して返す
+  // 削除の前に呼び出し、実際に削除されるidだけを変更イベントに記録するために使用する
+  // ロックはトランザクションの終了まで保持されるため、同時に削除した他のトランザクションと二重に記録しない
+  @Transactional
+  @Query(value = "select id from employees where id in :ids and deleted = false for update", nativeQuery = true)
+  List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+  // 指定したidの従業員を1回のDELETE文で削除する（SELECTは行わない）
+  // 呼び出しごとに1トランザクションでコミットするため、IN句の件数を抑えて呼び出すこと
+  // updatePartiallyと同様に、リージョン全体を無効化しないネイティブクエリにする（呼び出し側が evictFromCache で外す）
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_EVICTION_QUERY_SPACE))
+  @Query(value = "delete from employees where id in :ids and deleted = false", nativeQuery = true)
+  int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+  // ソフトデリート用に、指定したidの従業員に削除フラグを立てる（1回のUPDATE文）
+  // updatePartiallyと同様に、リージョン全体を無効化しないネイティブクエリにする（呼び出し側が evictFromCache で外す）
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_EVICTION_QUERY_SPACE))
+  @Query(value = "update employees set deleted = true, version = version + 1, updated_at = :updatedAt"
+    + " where id in :ids and deleted = false", nativeQuery = true)
+  int softDeleteAllByIds(@Param("ids") Collection<Long> ids, @Param("updatedAt") Instant updatedAt);
+
+  // 削除フラグの付いた行を最大limit件だけ物理削除する
+  // @SQLRestrictionの対象外にするためネイティブクエリを使用し、1回ごとにコミットしてロックを短く保つ
+  // 削除フラグの付いた行はフラグを立てた時点でキャッシュから外しているため、リージョンを無効化しないクエリ空間を指定する
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_EVICTION_QUERY_SPACE))
+  @Query(value = "delete from employees where deleted = true limit :limit", nativeQuery = true)
+  int purgeDeleted(@Param("limit") int limit);
+
   // index param を用いたJPQLを使用してカスタムクエリを定義
   // JPQLを用いており、SQLクエリを用いているわけではない、よってクラス名やクラスの変数で検索をかける
   @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
@@ -25,11 +131,13 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
   // JPQLを使わずネイティブのSQLクエリのindexを用いたメソッドの定義
   // テーブル名とカラム名はDBテーブルで用いられるように小文字とアンダースコアを用いたクエリに変更されている
-  @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
+  // ネイティブクエリには@SQLRestrictionが適用されないため、ソフトデリートされた行を明示的に除外する
+  @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2 and e.deleted = false", nativeQuery = true)
   Optional<Employee> findByNativeSQL(String firstName, String lastName);
 
   // JPQLを使わずネイティブのSQLクエリのnamed parametersを用いたメソッドの定義
   // テーブル名とカラム名はDBテーブルで用いられるように小文字とアンダースコアを用いたクエリに変更されている
-  @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
+  // ネイティブクエリには@SQLRestrictionが適用されないため、ソフトデリートされた行を明示的に除外する
+  @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName and e.deleted = false", nativeQuery = true)
   Optional<Employee> findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
 }
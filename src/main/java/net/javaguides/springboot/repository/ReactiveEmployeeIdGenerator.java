@@ -0,0 +1,55 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.ReactiveEmployee;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+// R2DBCでの新規登録時にEmployeeのIDを払い出すコールバック
+// JPA側と同じ employees_seq テーブル（MySQLでのHibernateのシーケンスエミュレーション）から採番する
+// Hibernateはpooled-loで next_val から allocationSize 分を予約するため、1件ずつ予約しても番号は重複しない
+@Component
+@Profile("reactive")
+public class ReactiveEmployeeIdGenerator implements BeforeConvertCallback<ReactiveEmployee> {
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator newTransaction;
+
+  public ReactiveEmployeeIdGenerator(DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+    this.databaseClient = databaseClient;
+    // 採番テーブルの行ロックを登録処理のトランザクション終了まで保持しないよう、別トランザクションで採番する
+    DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.newTransaction = TransactionalOperator.create(transactionManager, definition);
+  }
+
+  @Override
+  public Publisher<ReactiveEmployee> onBeforeConvert(ReactiveEmployee employee, SqlIdentifier table) {
+    if (employee.getId() != 0) {
+      return Mono.just(employee);
+    }
+    return nextId()
+      .map(id -> {
+        employee.setId(id);
+        return employee;
+      });
+  }
+
+  private Mono<Long> nextId() {
+    return databaseClient.sql("select next_val from employees_seq for update")
+      .map(row -> row.get("next_val", Long.class))
+      .one()
+      .flatMap(id -> databaseClient.sql("update employees_seq set next_val = :next")
+        .bind("next", id + 1)
+        .then()
+        .thenReturn(id))
+      .as(newTransaction::transactional);
+  }
+}
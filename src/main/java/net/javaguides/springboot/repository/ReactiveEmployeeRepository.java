@@ -0,0 +1,29 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.ReactiveEmployee;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// reactiveプロファイルで使用するR2DBCリポジトリ（EmployeeRepositoryのノンブロッキング版）
+// R2DBCではJPQLを使用できないため、カスタムクエリはすべてSQLで定義する
+// R2DBCには@SQLRestrictionがないため、ソフトデリートされた行（JPA側で削除された行）は各クエリで除外する
+// （findAll・findByIdは除外しないため、検索には findByDeletedFalse・findByIdAndDeletedFalse を使用する）
+public interface ReactiveEmployeeRepository extends R2dbcRepository<ReactiveEmployee, Long> {
+
+  Flux<ReactiveEmployee> findByDeletedFalse();
+
+  Mono<ReactiveEmployee> findByIdAndDeletedFalse(long id);
+
+  Mono<ReactiveEmployee> findByEmailAndDeletedFalse(String email);
+
+  // 姓名での検索（(last_name, first_name) の複合インデックスを使用する）
+  Flux<ReactiveEmployee> findByLastNameAndFirstNameAndDeletedFalse(String lastName, String firstName);
+
+  // named paramを用いたSQLのカスタムクエリ
+  // ネイティブクエリには@SQLRestrictionが適用されないため、ソフトデリートされた行を明示的に除外する
+  @Query("select * from employees e where e.first_name = :firstName and e.last_name = :lastName and e.deleted = false")
+  Flux<ReactiveEmployee> findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
+}
@@ -0,0 +1,24 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+
+// Employeeの登録・更新・削除を通知するイベント
+// トランザクション内で発行された場合、リスナーはコミット後に受け取る
+// partial=true の場合、employees には変更された項目だけが設定されている（nullの項目は変更なし）
+public record EmployeeChangedEvent(List<Employee> employees, boolean partial, Collection<Long> deletedIds) {
+
+  public static EmployeeChangedEvent saved(List<Employee> employees) {
+    return new EmployeeChangedEvent(employees, false, List.of());
+  }
+
+  public static EmployeeChangedEvent patched(Employee changes) {
+    return new EmployeeChangedEvent(List.of(changes), true, List.of());
+  }
+
+  public static EmployeeChangedEvent deleted(Collection<Long> ids) {
+    return new EmployeeChangedEvent(List.of(), false, ids);
+  }
+}
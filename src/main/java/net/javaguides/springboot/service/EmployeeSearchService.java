@@ -0,0 +1,15 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.EmployeeSearchHit;
+
+import java.util.List;
+
+public interface EmployeeSearchService {
+
+  // 空白区切りの各語が、名・姓・メールのいずれかの語の先頭に一致する従業員を返す
+  List<EmployeeSearchHit> search(String query, int limit);
+  // 全従業員から索引を作り直し、作り直している間の変更を反映してから置き換える
+  void rebuild();
+  // 変更フィードから他のインスタンスでの変更を取り込む
+  void pollChanges();
+}
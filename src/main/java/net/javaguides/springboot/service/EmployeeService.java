@@ -1,15 +1,36 @@
 package net.javaguides.springboot.service;
 
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeePage;
+import net.javaguides.springboot.model.EmployeeSyncCursor;
+import net.javaguides.springboot.model.EmployeeSyncPage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
   Employee saveEmployee(Employee employee);
+  List<Employee> saveEmployees(List<Employee> employees);
   List<Employee> getAllEmployees();
+  List<Map<String, Object>> getAllEmployeeFields(List<String> fields);
+  EmployeePage getEmployees(long afterId, int limit);
+  EmployeeSyncPage getEmployeesModifiedSince(EmployeeSyncCursor cursor, int limit);
+  void exportEmployees(Consumer<Employee> consumer);
   Optional<Employee> getEmployeeById(long id);
+  Optional<Employee> getEmployeeByEmail(String email);
+  List<Employee> getEmployeesByName(String firstName, String lastName);
   Employee updateEmployee(Employee updatedEmployee);
+  boolean patchEmployee(long id, Long expectedVersion, Employee changes);
   void deleteEmployeeById(long id);
+  int deleteEmployeesByIds(Collection<Long> ids);
+  // since より後の変更が保持期間を過ぎて削除されている場合は SyncWindowExpiredException（410）
+  EmployeeChangePage getChanges(long since, int limit);
+  // 変更フィードの最新の連番（getChanges の since に渡すと、これより後の変更を取得できる）
+  long getLatestChangeSeq();
+  int purgeDeletedEmployees();
 }
@@ -0,0 +1,17 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.ReactiveEmployee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// reactiveプロファイルで使用するEmployeeServiceのノンブロッキング版
+public interface ReactiveEmployeeService {
+
+  Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee);
+  Flux<ReactiveEmployee> getAllEmployees();
+  Mono<ReactiveEmployee> getEmployeeById(long id);
+  Mono<ReactiveEmployee> getEmployeeByEmail(String email);
+  Flux<ReactiveEmployee> getEmployeesByName(String firstName, String lastName);
+  Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee updatedEmployee);
+  Mono<Void> deleteEmployeeById(long id);
+}
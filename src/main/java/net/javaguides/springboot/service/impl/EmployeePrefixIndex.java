@@ -0,0 +1,190 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// 名・姓・メールの語から従業員idを引く前方一致用の転置索引
+// 語はソート済みのマップで保持し、接頭辞で始まる範囲だけを走査する
+// 検索はロックなしで行い、更新は1スレッドずつ行う
+public class EmployeePrefixIndex {
+
+  // 名前は空白・ハイフン、メールは記号で語に分割する（元の値全体も語として登録する）
+  private static final Pattern NAME_SEPARATOR = Pattern.compile("[\\s\\-]+");
+  private static final Pattern EMAIL_SEPARATOR = Pattern.compile("[@._+\\-]+");
+  private static final Pattern QUERY_SEPARATOR = Pattern.compile("\\s+");
+  // 走査の起点を選ぶために数える転置リストの件数の上限（索引の件数の1%、最小でこの件数）
+  static final long MIN_COUNT_LIMIT = 1_000;
+
+  private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+  private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+  private record Document(EmployeeSearchHit hit, Set<String> terms) {
+  }
+
+  public int size() {
+    return documents.size();
+  }
+
+  // 登録・置き換え
+  public synchronized void put(Employee employee) {
+    index(new EmployeeSearchHit(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+  }
+
+  // 部分更新（nullの項目は現在の値のまま）。索引にない場合は何もしない
+  public synchronized void merge(Employee changes) {
+    Document current = documents.get(changes.getId());
+    if (current == null) {
+      return;
+    }
+    EmployeeSearchHit hit = current.hit();
+    index(new EmployeeSearchHit(hit.getId(),
+      changes.getFirstName() != null ? changes.getFirstName() : hit.getFirstName(),
+      changes.getLastName() != null ? changes.getLastName() : hit.getLastName(),
+      changes.getEmail() != null ? changes.getEmail() : hit.getEmail()));
+  }
+
+  public synchronized void remove(long id) {
+    Document removed = documents.remove(id);
+    if (removed != null) {
+      unlink(id, removed.terms());
+    }
+  }
+
+  public List<EmployeeSearchHit> search(String query, int limit) {
+    List<String> prefixes = Arrays.stream(QUERY_SEPARATOR.split(query.trim().toLowerCase(Locale.ROOT)))
+      .filter(prefix -> !prefix.isEmpty())
+      .distinct()
+      .toList();
+    if (prefixes.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    String driving = selectDriving(prefixes);
+    if (driving == null) {
+      return List.of();
+    }
+    Set<Long> seen = new HashSet<>();
+    List<EmployeeSearchHit> hits = new ArrayList<>(limit);
+    for (Set<Long> ids : postings.subMap(driving, true, driving + Character.MAX_VALUE, false).values()) {
+      for (Long id : ids) {
+        if (!seen.add(id)) {
+          continue;
+        }
+        Document document = documents.get(id);
+        if (document != null && matchesAll(document.terms(), prefixes)) {
+          hits.add(document.hit());
+          if (hits.size() == limit) {
+            return hits;
+          }
+        }
+      }
+    }
+    return hits;
+  }
+
+  // 走査の起点にする接頭辞を選ぶ（一致する従業員がいない接頭辞がある場合は null）
+  // 一致する転置リストの合計件数が最も少ない（絞り込みの効く）接頭辞を選び、残りの接頭辞は候補ごとに確認する
+  // 各接頭辞の範囲を1語ずつ交互に数え、数え終えた最小件数を超えた接頭辞はそこで数えるのをやめるため、
+  // 数える量は最も絞り込みの効く接頭辞の範囲の数倍で済む（メールの語は従業員ごとに異なるため、一致の多い範囲は語も多い）
+  // どの接頭辞も上限に達する場合は一致が多く、どこから走査しても候補が早く見つかるため、最も長い接頭辞を起点にする
+  private String selectDriving(List<String> prefixes) {
+    List<Iterator<Set<Long>>> ranges = new ArrayList<>(prefixes.size());
+    for (String prefix : prefixes) {
+      ranges.add(postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().iterator());
+    }
+    long[] counts = new long[prefixes.size()];
+    String driving = null;
+    long drivingCount = Math.max(MIN_COUNT_LIMIT, documents.size() / 100);
+    boolean counting = true;
+    while (counting) {
+      counting = false;
+      for (int i = 0; i < ranges.size(); i++) {
+        Iterator<Set<Long>> range = ranges.get(i);
+        if (range == null) {
+          continue;
+        }
+        if (counts[i] >= drivingCount) {
+          ranges.set(i, null);
+        } else if (!range.hasNext()) {
+          if (counts[i] == 0) {
+            return null;
+          }
+          driving = prefixes.get(i);
+          drivingCount = counts[i];
+          ranges.set(i, null);
+        } else {
+          counts[i] += range.next().size();
+          counting = true;
+        }
+      }
+    }
+    return driving != null ? driving : prefixes.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+  }
+
+  private void index(EmployeeSearchHit hit) {
+    Set<String> terms = terms(hit);
+    Document previous = documents.put(hit.getId(), new Document(hit, terms));
+    if (previous != null) {
+      Set<String> removedTerms = new LinkedHashSet<>(previous.terms());
+      removedTerms.removeAll(terms);
+      unlink(hit.getId(), removedTerms);
+    }
+    for (String term : terms) {
+      postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(hit.getId());
+    }
+  }
+
+  private void unlink(long id, Set<String> terms) {
+    for (String term : terms) {
+      postings.computeIfPresent(term, (key, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+
+  private static boolean matchesAll(Set<String> terms, List<String> prefixes) {
+    for (String prefix : prefixes) {
+      if (terms.stream().noneMatch(term -> term.startsWith(prefix))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Set<String> terms(EmployeeSearchHit hit) {
+    Set<String> terms = new LinkedHashSet<>();
+    addTerms(terms, hit.getFirstName(), NAME_SEPARATOR);
+    addTerms(terms, hit.getLastName(), NAME_SEPARATOR);
+    addTerms(terms, hit.getEmail(), EMAIL_SEPARATOR);
+    return terms;
+  }
+
+  private static void addTerms(Set<String> terms, String value, Pattern separator) {
+    if (value == null || value.isBlank()) {
+      return;
+    }
+    String normalized = value.trim().toLowerCase(Locale.ROOT);
+    terms.add(normalized);
+    for (String part : separator.split(normalized)) {
+      if (!part.isEmpty()) {
+        terms.add(part);
+      }
+    }
+  }
+}
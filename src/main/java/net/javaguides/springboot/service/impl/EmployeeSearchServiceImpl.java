@@ -0,0 +1,160 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import net.javaguides.springboot.service.EmployeeSearchService;
+import net.javaguides.springboot.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Profile("!reactive")
+public class EmployeeSearchServiceImpl implements EmployeeSearchService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeSearchServiceImpl.class);
+
+  // 1回の検索で返す最大件数
+  static final int MAX_RESULTS = 100;
+  // 変更フィードを1回に取得する件数
+  static final int FEED_PAGE_SIZE = 1000;
+
+  private final EmployeeService employeeService;
+  private final ObjectMapper objectMapper;
+  // 作り直した索引と置き換えるため、検索は置き換え前後のどちらか一方の索引だけを参照する
+  private volatile EmployeePrefixIndex index = new EmployeePrefixIndex();
+  // 索引の置き換えと、作り直し中に届いた変更の記録を排他する
+  private final Object indexLock = new Object();
+  // 作り直し中に届いた変更（作り直し中以外は null）
+  private List<EmployeeChangedEvent> pendingEvents;
+  // 変更フィードの反映済みの位置（最初の作り直しが終わるまでは -1）
+  private long feedPosition = -1;
+
+  public EmployeeSearchServiceImpl(EmployeeService employeeService, ObjectMapper objectMapper) {
+    this.employeeService = employeeService;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public List<EmployeeSearchHit> search(String query, int limit) {
+    return index.search(query, Math.max(1, Math.min(limit, MAX_RESULTS)));
+  }
+
+  // 起動時（リクエストの受付開始前）に全従業員から索引を作成する
+  // レプリカの遅延で直近の変更が漏れないよう、レプリカが設定されていてもプライマリから読み込む
+  // 読み込みはスナップショットのため、読み込み中にコミットされた変更（削除など）で古い行が復活しないよう、
+  // 新しい索引に読み込んでから、読み込み中に届いた変更を反映して置き換える（それまでは元の索引で検索する）
+  // さらに読み込み前の変更フィードの位置から続きを反映し、他のインスタンスでの変更も取り込む
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    EmployeePrefixIndex rebuilt = new EmployeePrefixIndex();
+    synchronized (indexLock) {
+      pendingEvents = new ArrayList<>();
+    }
+    long position;
+    ReadWriteRoutingDataSource.pinToPrimary();
+    try {
+      position = employeeService.getLatestChangeSeq();
+      employeeService.exportEmployees(rebuilt::put);
+    } catch (RuntimeException e) {
+      synchronized (indexLock) {
+        pendingEvents = null;
+      }
+      throw e;
+    } finally {
+      ReadWriteRoutingDataSource.unpin();
+    }
+    synchronized (indexLock) {
+      pendingEvents.forEach(event -> apply(rebuilt, event));
+      pendingEvents = null;
+      index = rebuilt;
+    }
+    feedPosition = position;
+    pollChanges();
+  }
+
+  // 変更フィード（全インスタンスの変更がコミット順に並ぶ）の続きを索引に反映する
+  // このインスタンスの変更はリスナーで反映済みだが、同じ値を再度反映するだけなので問題ない
+  // 作り直しと同じくプライマリから読む（位置はプライマリで取得したもので、レプリカの遅延と混ぜない）
+  // 反映済みの位置の続きが保持期間を過ぎて削除されている（長時間反映できなかった）場合は作り直す
+  @Override
+  public synchronized void pollChanges() {
+    if (feedPosition < 0) {
+      return;
+    }
+    EmployeeChangePage page;
+    boolean pinned = ReadWriteRoutingDataSource.isPinnedToPrimary();
+    ReadWriteRoutingDataSource.pinToPrimary();
+    try {
+      do {
+        page = employeeService.getChanges(feedPosition, FEED_PAGE_SIZE);
+        page.getChanges().forEach(change -> onEmployeeChanged(toEvent(change)));
+        feedPosition = page.getNextSince();
+      } while (page.getChanges().size() == FEED_PAGE_SIZE);
+    } catch (SyncWindowExpiredException e) {
+      log.warn("Search index fell behind the change feed retention, rebuilding", e);
+      feedPosition = -1;
+    } finally {
+      if (!pinned) {
+        ReadWriteRoutingDataSource.unpin();
+      }
+    }
+    if (feedPosition < 0) {
+      rebuild();
+    }
+  }
+
+  // 登録・更新・削除がコミットされた後に索引に反映する（ロールバックされた変更は反映しない）
+  // トランザクション外で発行されたイベントはその場で反映する
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmployeeChanged(EmployeeChangedEvent event) {
+    synchronized (indexLock) {
+      apply(index, event);
+      if (pendingEvents != null) {
+        pendingEvents.add(event);
+      }
+    }
+  }
+
+  private static void apply(EmployeePrefixIndex target, EmployeeChangedEvent event) {
+    for (Employee employee : event.employees()) {
+      if (event.partial()) {
+        target.merge(employee);
+      } else {
+        target.put(employee);
+      }
+    }
+    event.deletedIds().forEach(target::remove);
+  }
+
+  private EmployeeChangedEvent toEvent(EmployeeChange change) {
+    return switch (change.type()) {
+      case CREATED, UPDATED -> EmployeeChangedEvent.saved(List.of(readEmployee(change)));
+      case PATCHED -> EmployeeChangedEvent.patched(readEmployee(change));
+      case DELETED -> EmployeeChangedEvent.deleted(List.of(change.employeeId()));
+    };
+  }
+
+  private Employee readEmployee(EmployeeChange change) {
+    try {
+      return objectMapper.readValue(change.employee(), Employee.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to read employee change:" + change.seq(), e);
+    }
+  }
+}
@@ -1,52 +1,424 @@
 package net.javaguides.springboot.service.impl;
 
-import net.javaguides.springboot.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import net.javaguides.springboot.config.EmployeeDeleteProperties;
+import net.javaguides.springboot.config.EmployeeOutboxProperties;
+import net.javaguides.springboot.config.EmployeeSingleFlightProperties;
+import net.javaguides.springboot.config.EmployeeSyncProperties;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ResourceVersionMismatchException;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.model.EmployeePage;
+import net.javaguides.springboot.model.EmployeeSyncCursor;
+import net.javaguides.springboot.model.EmployeeSyncPage;
+import net.javaguides.springboot.model.EmployeeTombstone;
+import net.javaguides.springboot.outbox.EmployeeOutbox;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
 import net.javaguides.springboot.service.EmployeeService;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
+// 全メソッドの処理時間を employee.service タイマー（class, methodタグ付き）でヒストグラムとして記録する
+@Timed(value = "employee.service", histogram = true)
 //@RequiredArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
 
+  // 1ページあたりの最大取得件数
+  static final int MAX_PAGE_SIZE = 1000;
+  // 一括登録時のflush/clear単位（hibernate.jdbc.batch_sizeと合わせる）
+  static final int INSERT_BATCH_SIZE = 50;
+  // メール重複チェックのIN句に渡す最大件数
+  static final int IN_CLAUSE_SIZE = 1000;
+
   EmployeeRepository employeeRepository;
+  EntityManager entityManager;
+  EmployeeDeleteProperties deleteProperties;
+  EmployeeSingleFlightProperties singleFlightProperties;
+  SingleFlight<Long, Optional<Employee>> employeeByIdFlight;
+  SingleFlight<String, Optional<Employee>> employeeByEmailFlight;
+  ApplicationEventPublisher eventPublisher;
+  EmployeeOutbox outbox;
+  EmployeeOutboxRepository outboxRepository;
+  TransactionOperations transactionOperations;
+  EmployeeSyncProperties syncProperties;
+  EmployeeOutboxProperties outboxProperties;
 
-  public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+  public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                             EmployeeDeleteProperties deleteProperties,
+                             EmployeeSingleFlightProperties singleFlightProperties, MeterRegistry meterRegistry,
+                             ApplicationEventPublisher eventPublisher, EmployeeOutbox outbox,
+                             EmployeeOutboxRepository outboxRepository, TransactionOperations transactionOperations,
+                             EmployeeSyncProperties syncProperties, EmployeeOutboxProperties outboxProperties) {
     this.employeeRepository = employeeRepository;
+    this.syncProperties = syncProperties;
+    this.outboxProperties = outboxProperties;
+    this.entityManager = entityManager;
+    this.eventPublisher = eventPublisher;
+    this.outbox = outbox;
+    this.outboxRepository = outboxRepository;
+    this.transactionOperations = transactionOperations;
+    this.deleteProperties = deleteProperties;
+    this.singleFlightProperties = singleFlightProperties;
+    // 待機していた呼び出しには、leaderの永続化コンテキストに属さない複製を渡す
+    UnaryOperator<Optional<Employee>> copier = employee -> employee.map(e -> e.toBuilder().build());
+    this.employeeByIdFlight = new SingleFlight<>(
+      "employee.id", singleFlightProperties.getMaxWait(), copier, meterRegistry);
+    this.employeeByEmailFlight = new SingleFlight<>(
+      "employee.email", singleFlightProperties.getMaxWait(), copier, meterRegistry);
   }
 
+  // 変更イベント（アウトボックス）を同じトランザクションで登録する
   @Override
+  @Transactional
   public Employee saveEmployee(Employee employee) {
     // メール重複のバリデーション
-    Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-    if (savedEmployee.isPresent()) {
-      throw new ResourceNotFoundException("Employee already exists with given email:" + employee.getEmail());
+    // 事前にfindByEmailで確認せず、ユニーク制約違反を検知することでINSERT 1回で登録する
+    try {
+      Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+      outbox.recordSaved(EmployeeOutboxEvent.Type.CREATED, List.of(savedEmployee));
+      eventPublisher.publishEvent(EmployeeChangedEvent.saved(List.of(savedEmployee)));
+      return savedEmployee;
+    } catch (DataIntegrityViolationException e) {
+      if (isDuplicateEmail(e)) {
+        throw new ResourceAlreadyExistsException("Employee already exists with given email:" + employee.getEmail(), e);
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  @Transactional
+  public List<Employee> saveEmployees(List<Employee> employees) {
+    // リクエスト内でのメール重複のバリデーション
+    Set<String> emails = new HashSet<>();
+    for (Employee employee : employees) {
+      if (!emails.add(employee.getEmail())) {
+        throw new ResourceAlreadyExistsException("Duplicate email in request:" + employee.getEmail());
+      }
+    }
+
+    // 登録済みメールとの重複のバリデーション（IN句でまとめて確認する）
+    List<String> emailList = new ArrayList<>(emails);
+    for (int from = 0; from < emailList.size(); from += IN_CLAUSE_SIZE) {
+      List<String> existingEmails = employeeRepository.findExistingEmails(
+        emailList.subList(from, Math.min(from + IN_CLAUSE_SIZE, emailList.size())));
+      if (!existingEmails.isEmpty()) {
+        throw new ResourceAlreadyExistsException("Employee already exists with given email:" + existingEmails.get(0));
+      }
     }
 
-    return employeeRepository.save(employee);
+    // batch_size単位でflushしてJDBCバッチINSERTを発行し、永続化コンテキストをclearして肥大化を防ぐ
+    // チェック後に他のリクエストが同じメールを登録した場合はユニーク制約違反として検知する
+    List<Employee> savedEmployees = new ArrayList<>(employees.size());
+    try {
+      for (int from = 0; from < employees.size(); from += INSERT_BATCH_SIZE) {
+        List<Employee> savedChunk = employeeRepository.saveAll(
+          employees.subList(from, Math.min(from + INSERT_BATCH_SIZE, employees.size())));
+        outbox.recordSaved(EmployeeOutboxEvent.Type.CREATED, savedChunk);
+        savedEmployees.addAll(savedChunk);
+        entityManager.flush();
+        entityManager.clear();
+      }
+    } catch (DataIntegrityViolationException | PersistenceException e) {
+      if (isDuplicateEmail(e)) {
+        throw new ResourceAlreadyExistsException("Employee already exists with one of the given emails", e);
+      }
+      throw e;
+    }
+    eventPublisher.publishEvent(EmployeeChangedEvent.saved(savedEmployees));
+    return savedEmployees;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Employee> getAllEmployees() {
     return employeeRepository.findAll();
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<Map<String, Object>> getAllEmployeeFields(List<String> fields) {
+    // エンティティを生成せず、指定した項目のカラムだけを取得する
+    return employeeRepository.findAllFields(fields);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public EmployeePage getEmployees(long afterId, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+    // 次ページの有無を判定するため1件多く取得する
+    List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> page = employees.subList(0, pageSize);
+    return new EmployeePage(page, page.get(pageSize - 1).getId());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public EmployeeSyncPage getEmployeesModifiedSince(EmployeeSyncCursor cursor, int limit) {
+    Instant now = Instant.now();
+    Instant since = cursor.timestamp();
+    // 削除の記録（アウトボックスのDELETEDイベント）が保持期間を過ぎて削除されている可能性がある
+    if (since.isBefore(now.minus(outboxProperties.getRetention()))) {
+      throw new SyncWindowExpiredException("modifiedSince is older than the tombstone retention:" + since);
+    }
+    int pageSize = Math.max(1, Math.min(limit, syncProperties.getMaxPageSize()));
+    Instant until = now.minus(syncProperties.getSettleWindow());
+    if (!since.isBefore(until)) {
+      return new EmployeeSyncPage(List.of(), List.of(), since, cursor);
+    }
+
+    // 位置より後の更新・削除を、それぞれ上限件数まで (日時, id) の順に取得する
+    // 位置が削除の場合は同じ日時の更新はすべて返却済みで、位置が更新の場合は同じ日時の削除はまだ返していない
+    long employeeAfterId = cursor.kind() == EmployeeSyncCursor.Kind.EMPLOYEE ? cursor.id() : Long.MAX_VALUE;
+    long deletedAfterId = cursor.kind() == EmployeeSyncCursor.Kind.DELETED ? cursor.id() : 0;
+    List<Employee> employees = employeeRepository.findModifiedAfter(since, employeeAfterId, until, Limit.of(pageSize));
+    List<EmployeeOutboxEvent> deleted = outboxRepository.findByTypeCreatedAfter(
+      EmployeeOutboxEvent.Type.DELETED, since, deletedAfterId, until, Limit.of(pageSize));
+
+    // 2つの結果を (日時, 種類, id) の順に併合して先頭から上限件数だけ返し、最後に返した変更を次の位置にする
+    // 同じ日時の変更が上限件数より多くても、位置にidを含めるため次のページで必ず先に進む
+    List<Employee> pageEmployees = new ArrayList<>();
+    List<EmployeeTombstone> pageDeleted = new ArrayList<>();
+    EmployeeSyncCursor next = cursor;
+    int e = 0;
+    int d = 0;
+    while (e + d < pageSize && (e < employees.size() || d < deleted.size())) {
+      EmployeeSyncCursor employeePosition = e < employees.size() ? EmployeeSyncCursor.of(employees.get(e)) : null;
+      EmployeeSyncCursor deletedPosition = d < deleted.size() ? EmployeeSyncCursor.of(deleted.get(d)) : null;
+      if (deletedPosition == null || (employeePosition != null && employeePosition.compareTo(deletedPosition) < 0)) {
+        pageEmployees.add(employees.get(e++));
+        next = employeePosition;
+      } else {
+        EmployeeOutboxEvent event = deleted.get(d++);
+        pageDeleted.add(new EmployeeTombstone(event.getEmployeeId(), event.getCreatedAt()));
+        next = deletedPosition;
+      }
+    }
+    // どちらも上限件数に満たず、すべて返した場合は until より前の変更を返しきっているため、until から再開させる
+    if (employees.size() < pageSize && deleted.size() < pageSize && e == employees.size() && d == deleted.size()) {
+      next = EmployeeSyncCursor.since(until);
+    }
+    return new EmployeeSyncPage(pageEmployees, pageDeleted, next.timestamp(), next);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void exportEmployees(Consumer<Employee> consumer) {
+    // 全件の読み込みで第2レベルキャッシュのよく読まれる従業員が追い出されないよう、キャッシュの参照・格納を行わない
+    // ストリームの行はクエリの実行後に読み込まれ、クエリのヒント（storeMode/retrieveMode）が効かないため、セッションに指定する
+    Session session = entityManager.unwrap(Session.class);
+    CacheMode cacheMode = session.getCacheMode();
+    session.setCacheMode(CacheMode.IGNORE);
+    try (Stream<Employee> employees = employeeRepository.streamAll()) {
+      employees.forEach(employee -> {
+        consumer.accept(employee);
+        // 永続化コンテキストに読み込んだエンティティが溜まらないよう、処理済みのものは都度デタッチする
+        entityManager.detach(employee);
+      });
+    } finally {
+      session.setCacheMode(cacheMode);
+    }
+  }
+
+  // 同時に来た同じidの読み込みはクエリ1回にまとめる
+  // 待機中の呼び出しがコネクションを確保しないよう、トランザクションはリポジトリ側（読み取り専用）で開始する
   @Override
   public Optional<Employee> getEmployeeById(long id) {
-    return employeeRepository.findById(id);
+    return coalesce(employeeByIdFlight, id, () -> employeeRepository.findById(id));
   }
 
   @Override
+  public Optional<Employee> getEmployeeByEmail(String email) {
+    return coalesce(employeeByEmailFlight, email, () -> employeeRepository.findByEmail(email));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Employee> getEmployeesByName(String firstName, String lastName) {
+    return employeeRepository.findByLastNameAndFirstName(lastName, firstName);
+  }
+
+  @Override
+  @Transactional
   public Employee updateEmployee(Employee updatedEmployee) {
-    return employeeRepository.save(updatedEmployee);
+    // 読み込み後に他のリクエストが更新していた場合は、@Versionの不一致としてUPDATEが失敗する
+    // コミット時ではなくここで検知できるよう、saveAndFlushでUPDATEを発行する
+    try {
+      Employee savedEmployee = employeeRepository.saveAndFlush(updatedEmployee);
+      outbox.recordSaved(EmployeeOutboxEvent.Type.UPDATED, List.of(savedEmployee));
+      eventPublisher.publishEvent(EmployeeChangedEvent.saved(List.of(savedEmployee)));
+      return savedEmployee;
+    } catch (OptimisticLockingFailureException e) {
+      throw new ResourceVersionMismatchException("Employee was modified concurrently:" + updatedEmployee.getId(), e);
+    }
+  }
+
+  @Override
+  @Transactional
+  public boolean patchEmployee(long id, Long expectedVersion, Employee changes) {
+    // 指定された項目だけをUPDATE 1回で更新する（事前のSELECTは行わない）
+    try {
+      int updatedCount = employeeRepository.updatePartially(
+        id, expectedVersion, changes.getFirstName(), changes.getLastName(), changes.getEmail(), Instant.now());
+      if (updatedCount > 0) {
+        // 更新した従業員だけを第2レベルキャッシュから外す
+        employeeRepository.evictFromCache(List.of(id));
+        outbox.recordPatched(id, changes);
+        eventPublisher.publishEvent(EmployeeChangedEvent.patched(changes.toBuilder().id(id).build()));
+        return true;
+      }
+    } catch (DataIntegrityViolationException e) {
+      if (isDuplicateEmail(e)) {
+        throw new ResourceAlreadyExistsException("Employee already exists with given email:" + changes.getEmail(), e);
+      }
+      throw e;
+    }
+
+    // 更新件数が0件の場合のみ、存在しないのかバージョンが一致しないのかを確認する
+    if (expectedVersion != null && employeeRepository.existsById(id)) {
+      throw new ResourceVersionMismatchException("Employee version does not match:" + id);
+    }
+    return false;
   }
 
   @Override
   public void deleteEmployeeById(long id) {
-    employeeRepository.deleteById(id);
+    // deleteByIdはエンティティをSELECTしてからDELETEするため、idだけのロック付きSELECTとDELETE(UPDATE)文1回で削除する
+    deleteEmployeesByIds(List.of(id));
+  }
+
+  @Override
+  public int deleteEmployeesByIds(Collection<Long> ids) {
+    // 重複を除いたidをchunk-size件ずつに分け、チャンクごとに1回のDELETE(UPDATE)文・1トランザクションで削除する
+    // チャンク単位でコミットするため、employeesテーブルのロックを長時間保持しない
+    // 変更イベント（アウトボックス）はチャンクと同じトランザクションで登録する
+    // 存在しないidや削除済みのidは記録・通知しないよう、先に実際に削除されるidを行ロックを取得して確定する
+    List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+    int chunkSize = deleteProperties.getChunkSize();
+    int deletedCount = 0;
+    for (int from = 0; from < idList.size(); from += chunkSize) {
+      List<Long> chunk = idList.subList(from, Math.min(from + chunkSize, idList.size()));
+      List<Long> deletedIds = transactionOperations.execute(status -> {
+        List<Long> existingIds = employeeRepository.lockExistingIds(chunk);
+        if (existingIds.isEmpty()) {
+          return existingIds;
+        }
+        if (deleteProperties.isSoftDelete()) {
+          employeeRepository.softDeleteAllByIds(existingIds, Instant.now());
+        } else {
+          employeeRepository.deleteAllByIds(existingIds);
+        }
+        // 削除した従業員だけを第2レベルキャッシュから外す
+        employeeRepository.evictFromCache(existingIds);
+        outbox.recordDeleted(existingIds);
+        return existingIds;
+      });
+      if (!deletedIds.isEmpty()) {
+        deletedCount += deletedIds.size();
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(List.copyOf(deletedIds)));
+      }
+    }
+    return deletedCount;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public EmployeeChangePage getChanges(long since, int limit) {
+    // since の直後のイベントが保持期間を過ぎて削除されている場合、続きから返すと取りこぼしになる
+    long oldestSeq = outboxRepository.findMinPublishedSeq();
+    if (oldestSeq > 0 && since < oldestSeq - 1) {
+      throw new SyncWindowExpiredException("since is older than the change feed retention:" + since);
+    }
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<EmployeeChange> changes = outboxRepository
+      .findByPublishedSeqGreaterThanOrderByPublishedSeqAsc(since, Limit.of(pageSize)).stream()
+      .map(EmployeeChange::of)
+      .toList();
+    long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+    return new EmployeeChangePage(changes, nextSince);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long getLatestChangeSeq() {
+    return outboxRepository.findMaxPublishedSeq();
+  }
+
+  @Override
+  public int purgeDeletedEmployees() {
+    // 削除フラグの付いた行をpurge-batch-size件ずつ物理削除し、残りがなくなるまで繰り返す
+    int batchSize = deleteProperties.getPurgeBatchSize();
+    int purgedCount = 0;
+    int deletedCount;
+    do {
+      deletedCount = employeeRepository.purgeDeleted(batchSize);
+      purgedCount += deletedCount;
+    } while (deletedCount == batchSize);
+    return purgedCount;
+  }
+
+  // single-flightが無効な場合はまとめずにそのまま読み込む
+  // leaderはレプリカから読む可能性があるため、プライマリに固定された呼び出し（書き込み直後の読み取り）と
+  // トランザクション中の呼び出し（プライマリ・自身の永続化コンテキストから読む）もまとめない
+  private <K> Optional<Employee> coalesce(SingleFlight<K, Optional<Employee>> flight, K key,
+                                          Supplier<Optional<Employee>> loader) {
+    if (!singleFlightProperties.isEnabled() || ReadWriteRoutingDataSource.isPinnedToPrimary()
+      || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return loader.get();
+    }
+    return flight.execute(key, loader);
+  }
+
+  // 例外の原因をたどり、emailのユニーク制約違反かどうかを判定する
+  private static boolean isDuplicateEmail(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        String constraintName = violation.getConstraintName();
+        return constraintName != null
+          && constraintName.toLowerCase().contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+      }
+    }
+    return false;
   }
 }
@@ -0,0 +1,72 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.ReactiveEmployee;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+  ReactiveEmployeeRepository employeeRepository;
+
+  public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository) {
+    this.employeeRepository = employeeRepository;
+  }
+
+  @Override
+  @Transactional
+  public Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee) {
+    // メール重複のバリデーション（ユニーク制約違反を検知する）
+    return employeeRepository.save(employee)
+      .onErrorMap(ReactiveEmployeeServiceImpl::isDuplicateEmail,
+        e -> new ResourceAlreadyExistsException("Employee already exists with given email:" + employee.getEmail(), e));
+  }
+
+  @Override
+  public Flux<ReactiveEmployee> getAllEmployees() {
+    return employeeRepository.findByDeletedFalse();
+  }
+
+  @Override
+  public Mono<ReactiveEmployee> getEmployeeById(long id) {
+    return employeeRepository.findByIdAndDeletedFalse(id);
+  }
+
+  @Override
+  public Mono<ReactiveEmployee> getEmployeeByEmail(String email) {
+    return employeeRepository.findByEmailAndDeletedFalse(email);
+  }
+
+  @Override
+  public Flux<ReactiveEmployee> getEmployeesByName(String firstName, String lastName) {
+    return employeeRepository.findByLastNameAndFirstNameAndDeletedFalse(lastName, firstName);
+  }
+
+  @Override
+  @Transactional
+  public Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee updatedEmployee) {
+    return employeeRepository.save(updatedEmployee);
+  }
+
+  @Override
+  @Transactional
+  public Mono<Void> deleteEmployeeById(long id) {
+    return employeeRepository.deleteById(id);
+  }
+
+  // R2DBCドライバの例外メッセージに含まれる制約名から、emailのユニーク制約違反かどうかを判定する
+  private static boolean isDuplicateEmail(Throwable e) {
+    return e instanceof DataIntegrityViolationException
+      && e.getMessage() != null
+      && e.getMessage().toLowerCase().contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+  }
+}
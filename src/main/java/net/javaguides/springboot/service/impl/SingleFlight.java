@@ -0,0 +1,97 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// 同じキーに対する同時実行中の読み込みを1回にまとめる
+// 最初の呼び出し(leader)だけがloaderを実行し、実行中に来た呼び出し(follower)はその結果を待って受け取る
+// followerには copier で複製した値を渡し、スレッド間で同じインスタンスを共有しないようにする
+public class SingleFlight<K, V> {
+
+  static final String CALLS_METRIC = "employee.single_flight.calls";
+  static final String WAITING_METRIC = "employee.single_flight.waiting";
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Duration maxWait;
+  private final UnaryOperator<V> copier;
+
+  // leader: loaderを実行した呼び出し, coalesced: leaderの結果を受け取った呼び出し,
+  // timeout: 待機時間を超えたため自分でloaderを実行した呼び出し
+  private final Counter leaderCalls;
+  private final Counter coalescedCalls;
+  private final Counter timeoutCalls;
+  private final AtomicInteger waiting;
+
+  // 値のキー単位ではなくflight名（employee.id など）単位でタグ付けし、メトリクスのカーディナリティを抑える
+  public SingleFlight(String name, Duration maxWait, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+    this.maxWait = maxWait;
+    this.copier = copier;
+    this.leaderCalls = meterRegistry.counter(CALLS_METRIC, "flight", name, "result", "leader");
+    this.coalescedCalls = meterRegistry.counter(CALLS_METRIC, "flight", name, "result", "coalesced");
+    this.timeoutCalls = meterRegistry.counter(CALLS_METRIC, "flight", name, "result", "timeout");
+    this.waiting = meterRegistry.gauge(WAITING_METRIC, Tags.of("flight", name), new AtomicInteger());
+  }
+
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> inFlightCall = inFlight.putIfAbsent(key, call);
+    if (inFlightCall == null) {
+      return lead(key, call, loader);
+    }
+    return follow(inFlightCall, loader);
+  }
+
+  private V lead(K key, CompletableFuture<V> call, Supplier<V> loader) {
+    leaderCalls.increment();
+    try {
+      V value = loader.get();
+      call.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  private V follow(CompletableFuture<V> call, Supplier<V> loader) {
+    waiting.incrementAndGet();
+    try {
+      V value = call.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+      coalescedCalls.increment();
+      return copier.apply(value);
+    } catch (TimeoutException e) {
+      // leaderの処理が長引いている場合は待ち続けず、自分で読み込む
+      timeoutCalls.increment();
+      return loader.get();
+    } catch (ExecutionException e) {
+      // leaderの例外をそのままfollowerにも伝える
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for in-flight call", e);
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+}
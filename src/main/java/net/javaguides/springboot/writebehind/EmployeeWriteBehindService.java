@@ -0,0 +1,330 @@
+package net.javaguides.springboot.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.config.EmployeeWriteBehindProperties;
+import net.javaguides.springboot.exception.InvalidEmployeeException;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.WriteBehindQueueFullException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.writebehind.EmployeeWriteJournal.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Employeeの非同期登録（write-behind）
+// - submit: ジャーナルに記録してディスクへの同期を待ち、キューに積んで追跡IDを返す（DBの応答を待たない）
+// - ジャーナルの同期は専用のスレッドが、その間に受け付けた登録の分をまとめて1回で行う（グループコミット）
+// - バックグラウンドのスレッドがキューから batch-size 件ずつ取り出し、saveEmployeesでまとめて登録する
+// - キューが queue-capacity 件に達している場合は offer-timeout まで待ち、空かなければ拒否する（back-pressure）
+// - DBの停止などの一時的なエラーは再試行し、それ以外（制約違反など）はその登録だけを FAILED にして先に進む
+public class EmployeeWriteBehindService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeWriteBehindService.class);
+  private static final long POLL_INTERVAL_MILLIS = 500;
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+  // employees の各列の長さ（V1__create_employees.sql の varchar(255)）
+  private static final int MAX_COLUMN_LENGTH = 255;
+
+  public enum State { PENDING, WRITTEN, FAILED }
+
+  public record WriteStatus(UUID trackingId, State state, Long employeeId, String error) {
+  }
+
+  private final EmployeeService employeeService;
+  private final EmployeeWriteJournal journal;
+  private final EmployeeWriteBehindProperties properties;
+  private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+  private final Semaphore capacity;
+  private final Map<UUID, WriteStatus> statuses = new ConcurrentHashMap<>();
+  private final Queue<UUID> completed = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger completedCount = new AtomicInteger();
+  // ジャーナルへの追記と、ジャーナルを空にする判定・処理が入れ替わらないようにする
+  private final ReentrantLock journalLock = new ReentrantLock();
+  private final Counter journalSyncs;
+  private volatile boolean running;
+  private volatile boolean syncing;
+  private Thread writer;
+  private Thread journalSyncer;
+
+  public EmployeeWriteBehindService(EmployeeService employeeService, EmployeeWriteJournal journal,
+                                    EmployeeWriteBehindProperties properties, MeterRegistry meterRegistry) {
+    this.employeeService = employeeService;
+    this.journal = journal;
+    this.properties = properties;
+    this.capacity = new Semaphore(properties.getQueueCapacity());
+    meterRegistry.gauge("employee.write_behind.pending", queue, BlockingQueue::size);
+    this.journalSyncs = meterRegistry.counter("employee.write_behind.journal_syncs");
+  }
+
+  // ジャーナルに残っている未完了の登録を先に書き込んでから、キューの処理を開始する
+  public void start() {
+    List<Entry> replayed = journal.readPending();
+    journal.compact(replayed);
+    for (Entry entry : replayed) {
+      statuses.put(entry.trackingId(), new WriteStatus(entry.trackingId(), State.PENDING, null, null));
+    }
+    syncing = true;
+    journalSyncer = new Thread(this::syncJournal, "employee-write-behind-journal");
+    journalSyncer.setDaemon(true);
+    journalSyncer.start();
+    running = true;
+    writer = new Thread(() -> run(replayed), "employee-write-behind");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  // 書き込み中のバッチの完了を待って停止する（キューに残った登録はジャーナルから次回起動時に再実行する）
+  // 書き込みスレッドの完了の記録も同期されるよう、ジャーナルの同期スレッドは書き込みスレッドの後に止める
+  public void stop() throws IOException {
+    running = false;
+    join(writer);
+    syncing = false;
+    join(journalSyncer);
+    journal.close();
+  }
+
+  // 受け付けた（202を返した）後に書き込めないことが分かる登録は、受付前に拒否する
+  public WriteStatus submit(Employee employee) {
+    validate(employee);
+    boolean acquired;
+    try {
+      acquired = capacity.tryAcquire(properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      throw new WriteBehindQueueFullException("Write-behind queue is full:" + properties.getQueueCapacity());
+    }
+
+    Entry entry = Entry.accepted(UUID.randomUUID(), employee);
+    try {
+      long position;
+      journalLock.lock();
+      try {
+        position = journal.append(List.of(entry));
+      } finally {
+        journalLock.unlock();
+      }
+      // 受付の記録がディスクに同期されてから応答する（同期できなかった登録はキューに積まない）
+      journal.awaitSync(position);
+    } catch (RuntimeException e) {
+      capacity.release();
+      throw e;
+    }
+    WriteStatus status = new WriteStatus(entry.trackingId(), State.PENDING, null, null);
+    statuses.put(entry.trackingId(), status);
+    queue.add(entry);
+    return status;
+  }
+
+  public Optional<WriteStatus> getStatus(UUID trackingId) {
+    return Optional.ofNullable(statuses.get(trackingId));
+  }
+
+  private void run(List<Entry> replayed) {
+    for (int from = 0; from < replayed.size() && running; from += properties.getBatchSize()) {
+      write(replayed.subList(from, Math.min(from + properties.getBatchSize(), replayed.size())));
+    }
+
+    while (running) {
+      try {
+        Entry first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        // バッチは毎回作り直し、例外で抜けた場合に同じ登録を再投入しないようにする
+        List<Entry> batch = new ArrayList<>(properties.getBatchSize());
+        batch.add(first);
+        queue.drainTo(batch, properties.getBatchSize() - 1);
+        int written = write(batch);
+        capacity.release(written);
+        if (written < batch.size()) {
+          // 停止中のため書き込めなかった登録はジャーナルに残し、次回起動時に再実行する
+          return;
+        }
+        // 受け付けた登録をすべて書き込み終えた（受付中・キュー内の登録がない）場合は、ジャーナルを空にする
+        journalLock.lock();
+        try {
+          if (capacity.availablePermits() == properties.getQueueCapacity()) {
+            journal.truncate();
+          }
+        } finally {
+          journalLock.unlock();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (UncheckedIOException e) {
+        log.error("Failed to update write-behind journal", e);
+      }
+    }
+  }
+
+  // まとめて登録し、書き込みが完了した（WRITTEN / FAILED になった）件数を返す
+  // メール重複や制約違反などが含まれる場合は1件ずつ登録し直して、失敗した登録だけを FAILED にする
+  // 一時的なエラー（DB停止・タイムアウトなど）は retry-backoff 後に再試行する
+  // 再試行するのはDBへの書き込みだけで、コミット後のジャーナルへの記録（complete）は再試行の対象に含めない
+  private int write(List<Entry> batch) {
+    List<Employee> saved = null;
+    while (saved == null && running) {
+      try {
+        saved = employeeService.saveEmployees(batch.stream().map(Entry::employee).map(this::copy).toList());
+      } catch (RuntimeException e) {
+        if (!isTransient(e)) {
+          return writeIndividually(batch);
+        }
+        log.warn("Failed to write {} employees, retrying in {}", batch.size(), properties.getRetryBackoff(), e);
+        backOff();
+      }
+    }
+    if (saved == null) {
+      return 0;
+    }
+    List<Entry> results = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      results.add(Entry.written(batch.get(i).trackingId(), saved.get(i).getId()));
+    }
+    complete(results);
+    return batch.size();
+  }
+
+  private int writeIndividually(List<Entry> batch) {
+    int written = 0;
+    while (written < batch.size() && running) {
+      Entry entry = batch.get(written);
+      Entry result;
+      try {
+        Employee saved = employeeService.saveEmployee(copy(entry.employee()));
+        result = Entry.written(entry.trackingId(), saved.getId());
+      } catch (ResourceAlreadyExistsException e) {
+        result = Entry.failed(entry.trackingId(), e.getMessage());
+      } catch (RuntimeException e) {
+        if (isTransient(e)) {
+          log.warn("Failed to write employee, retrying in {}", properties.getRetryBackoff(), e);
+          backOff();
+          continue;
+        }
+        // 再試行しても成功しないため、ジャーナルにも FAILED として記録し、再起動後も再実行しない
+        log.error("Failed to write employee {}, giving up", entry.trackingId(), e);
+        result = Entry.failed(entry.trackingId(), e.getMessage());
+      }
+      complete(List.of(result));
+      written++;
+    }
+    return written;
+  }
+
+  // 書き込み結果を状態に反映してからジャーナルに記録する
+  // DBへの書き込みはコミット済みのため、ジャーナルに記録できなくても書き込み直さない
+  // （記録できなかった登録は ACCEPTED のまま残り、再起動時に再実行される。メール重複の場合は FAILED になる）
+  private void complete(List<Entry> results) {
+    for (Entry result : results) {
+      State state = result.type() == EmployeeWriteJournal.Type.WRITTEN ? State.WRITTEN : State.FAILED;
+      statuses.put(result.trackingId(), new WriteStatus(result.trackingId(), state, result.employeeId(), result.error()));
+      completed.add(result.trackingId());
+      // 完了した登録の状態は直近 status-history-size 件だけ保持する
+      if (completedCount.incrementAndGet() > properties.getStatusHistorySize()) {
+        UUID oldest = completed.poll();
+        if (oldest != null) {
+          statuses.remove(oldest);
+          completedCount.decrementAndGet();
+        }
+      }
+    }
+    try {
+      journal.awaitSync(journal.append(results));
+    } catch (UncheckedIOException e) {
+      log.error("Failed to record {} completed writes in the write-behind journal", results.size(), e);
+    }
+  }
+
+  // ジャーナルへの追記を待ち、まとめてディスクに同期する
+  private void syncJournal() {
+    while (syncing) {
+      try {
+        if (journal.syncAppended(Duration.ofMillis(POLL_INTERVAL_MILLIS)) > 0) {
+          journalSyncs.increment();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (UncheckedIOException e) {
+        log.error("Failed to sync write-behind journal", e);
+      }
+    }
+  }
+
+  private static void join(Thread thread) {
+    if (thread == null) {
+      return;
+    }
+    try {
+      thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void validate(Employee employee) {
+    requireColumn("firstName", employee.getFirstName());
+    requireColumn("lastName", employee.getLastName());
+    requireColumn("email", employee.getEmail());
+  }
+
+  private static void requireColumn(String field, String value) {
+    if (value == null || value.isBlank()) {
+      throw new InvalidEmployeeException(field + " is required");
+    }
+    if (value.length() > MAX_COLUMN_LENGTH) {
+      throw new InvalidEmployeeException(field + " must be at most " + MAX_COLUMN_LENGTH + " characters");
+    }
+  }
+
+  // 時間をおけば成功する可能性があるエラー（接続できない・タイムアウト・デッドロックなど）
+  // DataAccessResourceFailureException は CannotGetJdbcConnectionException を含み、
+  // TransientDataAccessException は QueryTimeoutException・ロック取得の失敗を含む
+  private static boolean isTransient(RuntimeException e) {
+    return e instanceof TransientDataAccessException
+      || e instanceof RecoverableDataAccessException
+      || e instanceof DataAccessResourceFailureException
+      || e instanceof CannotCreateTransactionException;
+  }
+
+  // 失敗した試行でidが採番されていても新規登録になるよう、毎回idを0にした複製を渡す
+  private Employee copy(Employee employee) {
+    return employee.toBuilder().id(0).build();
+  }
+
+  private void backOff() {
+    try {
+      Thread.sleep(properties.getRetryBackoff().toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
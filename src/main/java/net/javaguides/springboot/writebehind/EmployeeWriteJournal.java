@@ -0,0 +1,256 @@
+package net.javaguides.springboot.writebehind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 非同期登録のジャーナル（1行1エントリのJSON Lines形式の追記専用ファイル）
+// 受付時に ACCEPTED を、DBへの書き込み後に WRITTEN / FAILED を追記し、
+// 起動時に完了していない ACCEPTED を読み出して再実行する
+// ディスクへの同期（fsync）は追記ごとには行わず、syncAppended を呼び出すスレッドがそれまでの追記をまとめて1回で行う
+// （グループコミット）。追記したスレッドは awaitSync で同期を待つ
+// 仮想スレッドから呼び出してもキャリアスレッドを固定しないよう、synchronized ではなく ReentrantLock を使用する
+public class EmployeeWriteJournal implements Closeable {
+
+  public enum Type { ACCEPTED, WRITTEN, FAILED }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Entry(Type type, UUID trackingId, Employee employee, Long employeeId, String error) {
+
+    static Entry accepted(UUID trackingId, Employee employee) {
+      return new Entry(Type.ACCEPTED, trackingId, employee, null, null);
+    }
+
+    static Entry written(UUID trackingId, long employeeId) {
+      return new Entry(Type.WRITTEN, trackingId, null, employeeId, null);
+    }
+
+    static Entry failed(UUID trackingId, String error) {
+      return new Entry(Type.FAILED, trackingId, null, null, error);
+    }
+  }
+
+  private final Path file;
+  private final ObjectMapper objectMapper;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appended = lock.newCondition();
+  private final Condition synced = lock.newCondition();
+  private FileChannel channel;
+  // 追記したエントリ数と、ディスクに同期済みのエントリ数（ファイルを空にしても戻さない通し番号）
+  private long appendedPosition;
+  private long syncedPosition;
+  // 同期に失敗したときの追記位置（ここまでの追記を待っているスレッドには失敗を返す）
+  private long failedPosition;
+  private IOException syncFailure;
+  private boolean closed;
+
+  public EmployeeWriteJournal(Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      this.channel = open(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open write-behind journal:" + file, e);
+    }
+  }
+
+  // エントリを追記し、追記後の位置を返す（ディスクへの同期は待たない。awaitSync に位置を渡して待つ）
+  public long append(List<Entry> entries) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      for (Entry entry : entries) {
+        bytes.write(objectMapper.writeValueAsBytes(entry));
+        bytes.write('\n');
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      lock.lock();
+      try {
+        if (entries.isEmpty()) {
+          return appendedPosition;
+        }
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        appendedPosition += entries.size();
+        appended.signal();
+        return appendedPosition;
+      } finally {
+        lock.unlock();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to write-behind journal:" + file, e);
+    }
+  }
+
+  // 指定した位置までの追記がディスクに同期されるまで待つ（同期後はプロセスが落ちても失われない）
+  public void awaitSync(long position) {
+    lock.lock();
+    try {
+      while (syncedPosition < position) {
+        if (failedPosition >= position) {
+          throw new UncheckedIOException("Failed to sync write-behind journal:" + file, syncFailure);
+        }
+        synced.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // 同期していない追記を最大 maxWait 待ち、それまでの追記をまとめて1回でディスクに同期して、同期したエントリ数を返す
+  // 同期中は追記を止めない（同期中に追記されたエントリは次の同期に含める）
+  public long syncAppended(Duration maxWait) throws InterruptedException {
+    long target;
+    FileChannel current;
+    lock.lock();
+    try {
+      long nanos = maxWait.toNanos();
+      while (appendedPosition == syncedPosition && nanos > 0) {
+        nanos = appended.awaitNanos(nanos);
+      }
+      if (appendedPosition == syncedPosition || closed) {
+        return 0;
+      }
+      target = appendedPosition;
+      current = channel;
+    } finally {
+      lock.unlock();
+    }
+
+    IOException failure = null;
+    try {
+      current.force(false);
+    } catch (IOException e) {
+      failure = e;
+    }
+    lock.lock();
+    try {
+      long count = target - syncedPosition;
+      if (failure == null) {
+        syncedPosition = Math.max(syncedPosition, target);
+      } else {
+        failedPosition = target;
+        syncFailure = failure;
+      }
+      synced.signalAll();
+      if (failure != null) {
+        throw new UncheckedIOException("Failed to sync write-behind journal:" + file, failure);
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // 書き込みが完了していない ACCEPTED エントリを受付順に返す
+  // 書き込み途中でプロセスが落ちた場合の末尾の壊れた行は読み飛ばす
+  public List<Entry> readPending() {
+    Map<UUID, Entry> pending = new LinkedHashMap<>();
+    lock.lock();
+    try {
+      for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        if (line.isBlank()) {
+          continue;
+        }
+        Entry entry;
+        try {
+          entry = objectMapper.readValue(line, Entry.class);
+        } catch (IOException e) {
+          continue;
+        }
+        if (entry.type() == Type.ACCEPTED) {
+          pending.put(entry.trackingId(), entry);
+        } else {
+          pending.remove(entry.trackingId());
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read write-behind journal:" + file, e);
+    } finally {
+      lock.unlock();
+    }
+    return new ArrayList<>(pending.values());
+  }
+
+  // 未完了のエントリだけを残したファイルに置き換える
+  public void compact(List<Entry> pending) {
+    lock.lock();
+    try {
+      Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+      try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        for (Entry entry : pending) {
+          ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+          while (buffer.hasRemaining()) {
+            out.write(buffer);
+          }
+        }
+        out.force(true);
+      }
+      channel.close();
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      channel = open(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to compact write-behind journal:" + file, e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // 未完了のエントリがない場合に呼び出し、ファイルを空にする
+  public void truncate() {
+    lock.lock();
+    try {
+      channel.truncate(0);
+      channel.force(true);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to truncate write-behind journal:" + file, e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // 同期していない追記を同期してから閉じる（同期を待っているスレッドも戻る）
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      channel.force(false);
+      syncedPosition = appendedPosition;
+      closed = true;
+      synced.signalAll();
+      channel.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static FileChannel open(Path file) throws IOException {
+    return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+}
@@ -0,0 +1,6 @@
+-- メールアドレスのユニーク制約（既に重複した行がある場合は適用に失敗するため、先に重複を解消しておくこと）
+alter table employees add constraint uk_employees_email unique (email);
+
+-- 姓名での検索、物理削除ジョブの検索用
+create index idx_employees_last_name_first_name on employees (last_name, first_name);
+create index idx_employees_deleted on employees (deleted);
@@ -0,0 +1,9 @@
+-- IDの払い出しを IDENTITY からシーケンス（employees_seq）に切り替える
+-- Hibernateが allocationSize 分のIDをまとめて払い出すため、IDENTITY は外しておく
+alter table employees alter column id drop identity;
+
+create sequence employees_seq start with 1 increment by 50;
+
+-- pooled-lo はシーケンスの値から allocationSize 分のIDを払い出すため、登録済みの最大IDの次から始める
+-- （1から始めると IDENTITY で採番済みのIDと重複し、最初のINSERTが主キー違反になる）
+alter sequence employees_seq restart with (select coalesce(max(id), 0) + 1 from employees);
@@ -0,0 +1,10 @@
+-- 従業員（Employee）
+-- マイグレーション導入前のアプリケーション（ddl-auto=update）が作成していたスキーマと同じ
+-- 既存のDBは履歴がないため、このバージョンを適用済みとして記録し（ベースライン）、V2以降だけを適用する
+create table employees (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,5 @@
+-- 楽観ロック用のバージョンとソフトデリートの削除フラグ
+-- 既存の行はバージョン0・未削除になる
+alter table employees
+    add column version bigint not null default 0,
+    add column deleted bit not null default 0;
@@ -0,0 +1,11 @@
+-- IDの払い出しを AUTO_INCREMENT からテーブルでエミュレートしたシーケンス（employees_seq）に切り替える
+-- Hibernateが allocationSize 分のIDをまとめて払い出すため、AUTO_INCREMENT は外しておく
+alter table employees modify id bigint not null;
+
+create table employees_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- pooled-lo は next_val から allocationSize 分のIDを払い出すため、登録済みの最大IDの次から始める
+-- （1から始めると AUTO_INCREMENT で採番済みのIDと重複し、最初のINSERTが主キー違反になる）
+insert into employees_seq select coalesce(max(id), 0) + 1 from employees;
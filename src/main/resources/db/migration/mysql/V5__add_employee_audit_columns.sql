@@ -0,0 +1,8 @@
+-- 監査項目（登録日時・更新日時）
+-- 既存の行は NULL のままになり、次に更新されるまで差分同期（modifiedSince）の対象にならない
+alter table employees
+    add column created_at datetime(6),
+    add column updated_at datetime(6);
+
+-- 差分同期（modifiedSince）の範囲検索用
+create index idx_employees_updated_at on employees (updated_at);
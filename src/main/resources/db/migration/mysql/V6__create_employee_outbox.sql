@@ -0,0 +1,22 @@
+-- 従業員の変更イベント（トランザクショナル・アウトボックス、EmployeeOutboxEvent）
+create table employee_outbox (
+    id bigint not null,
+    employee_id bigint not null,
+    type enum ('CREATED','DELETED','PATCHED','UPDATED') not null,
+    payload longtext,
+    created_at datetime(6) not null,
+    published_seq bigint,
+    published_at datetime(6),
+    primary key (id),
+    constraint uk_employee_outbox_published_seq unique (published_seq)
+) engine=InnoDB;
+
+-- 保持期間を過ぎたイベントの削除、差分同期の削除の記録（tombstone）の範囲検索用
+create index idx_employee_outbox_published_at on employee_outbox (published_at);
+create index idx_employee_outbox_type_created_at on employee_outbox (type, created_at);
+
+create table employee_outbox_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into employee_outbox_seq values (1);
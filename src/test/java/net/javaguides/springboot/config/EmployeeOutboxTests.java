@@ -0,0 +1,204 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.outbox.EmployeeChangeSink;
+import net.javaguides.springboot.outbox.EmployeeOutboxRelay;
+import net.javaguides.springboot.outbox.InMemoryEmployeeChangeSink;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// H2のインメモリDBでアプリケーション全体を起動し、変更とアウトボックスのイベントが同じトランザクションで登録され、
+// リレーが配信した順に変更フィードから取得できることを確認する（リレーはテストから直接実行する）
+@SpringBootTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "employee.cache.enabled=false",
+  "employee.outbox.relay-enabled=false"
+})
+public class EmployeeOutboxTests {
+
+  @Autowired
+  private EmployeeService employeeService;
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  private EmployeeOutboxRepository outboxRepository;
+  @Autowired
+  private EmployeeOutboxRelay relay;
+  @Autowired
+  private EmployeeChangeSink sink;
+  @Autowired
+  private EmployeeOutboxProperties outboxProperties;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  private Duration retention;
+
+  @BeforeEach
+  public void setup() {
+    outboxRepository.deleteAll();
+    employeeRepository.deleteAll();
+    retention = outboxProperties.getRetention();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    outboxProperties.setRetention(retention);
+  }
+
+  // JUnit test for outbox relay and change feed
+  @DisplayName("JUnit test for outbox relay and change feed")
+  @Test
+  public void givenEmployeeChanges_whenRelay_thenChangesAreReadableInOrder() {
+    // given - precondition or setup
+    Employee employee = employeeService.saveEmployee(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+    employeeService.patchEmployee(employee.getId(), null, Employee.builder().firstName("Ram").build());
+    employeeService.deleteEmployeeById(employee.getId());
+    long since = outboxRepository.findMaxPublishedSeq();
+
+    // when - action or the behaviour
+    int relayedCount = relay.relay();
+    EmployeeChangePage page = employeeService.getChanges(since, 100);
+
+    // then - verify the output
+    assertThat(relayedCount).isEqualTo(3);
+    assertThat(page.getChanges()).extracting(EmployeeChange::type).containsExactly(
+      EmployeeOutboxEvent.Type.CREATED, EmployeeOutboxEvent.Type.PATCHED, EmployeeOutboxEvent.Type.DELETED);
+    assertThat(page.getChanges()).extracting(EmployeeChange::employeeId).containsOnly(employee.getId());
+    assertThat(page.getChanges().get(1).employee()).contains("\"firstName\":\"Ram\"");
+    assertThat(page.getNextSince()).isEqualTo(since + 3);
+    assertThat(employeeService.getChanges(page.getNextSince(), 100).getChanges()).isEmpty();
+    assertThat(((InMemoryEmployeeChangeSink) sink).recent()).containsAll(page.getChanges());
+  }
+
+  // JUnit test for outbox with rolled back change
+  @DisplayName("JUnit test for outbox with rolled back change")
+  @Test
+  public void givenDuplicateEmail_whenSaveEmployee_thenNoChangeIsRecorded() {
+    // given - precondition or setup
+    employeeService.saveEmployee(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+
+    // when - action or the behaviour
+    assertThatThrownBy(() -> employeeService.saveEmployees(List.of(
+      Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build(),
+      Employee.builder().firstName("Ram").lastName("Fadatare").email("ramesh@gmail.com").build())))
+      .isInstanceOf(ResourceAlreadyExistsException.class);
+
+    // then - verify the output
+    assertThat(outboxRepository.count()).isEqualTo(1);
+  }
+
+  // JUnit test for outbox purge and change feed retention
+  @DisplayName("JUnit test for outbox purge and change feed retention")
+  @Test
+  public void givenPurgedEvents_whenGetChangesFromBeforeRetention_thenThrowsException() {
+    // given - precondition or setup
+    Employee employee = employeeService.saveEmployee(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+    employeeService.patchEmployee(employee.getId(), null, Employee.builder().firstName("Ram").build());
+    employeeService.deleteEmployeeById(employee.getId());
+    long since = outboxRepository.findMaxPublishedSeq();
+    relay.relay();
+    outboxProperties.setRetention(Duration.ZERO);
+
+    // when - action or the behaviour
+    int purgedCount = relay.purge();
+
+    // then - verify the output
+    // 最新のイベントは残り、連番は振り直されない
+    assertThat(purgedCount).isEqualTo(2);
+    assertThat(outboxRepository.findMaxPublishedSeq()).isEqualTo(since + 3);
+    assertThatThrownBy(() -> employeeService.getChanges(since, 100)).isInstanceOf(SyncWindowExpiredException.class);
+    assertThat(employeeService.getChanges(since + 2, 100).getChanges())
+      .extracting(EmployeeChange::type).containsExactly(EmployeeOutboxEvent.Type.DELETED);
+  }
+
+  // JUnit test for concurrent outbox relays
+  @DisplayName("JUnit test for concurrent outbox relays")
+  @Test
+  public void givenRelayInProgress_whenAnotherRelayRuns_thenSeqsAreNotDuplicated() throws Exception {
+    // given - precondition or setup
+    // 1つ目のリレーはシンクへの配信中に止め、取り出したイベントのロックと振った連番を保持させる
+    Employee ramesh = employeeService.saveEmployee(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+    long since = outboxRepository.findMaxPublishedSeq();
+    CountDownLatch publishing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    EmployeeOutboxRelay blockedRelay = new EmployeeOutboxRelay(outboxRepository, changes -> {
+      publishing.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, outboxProperties);
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    CompletableFuture<Integer> blocked =
+      CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> blockedRelay.relay()));
+    assertThat(publishing.await(10, TimeUnit.SECONDS)).isTrue();
+    Employee tony = employeeService.saveEmployee(Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build());
+
+    // when - action or the behaviour
+    // 2つ目のリレーはロック中のイベントを飛ばし、同じ連番を振るためユニーク制約違反となる
+    CompletableFuture<Integer> concurrent = CompletableFuture.supplyAsync(relay::relay);
+    Thread.sleep(200);
+    release.countDown();
+    int blockedCount = blocked.get(10, TimeUnit.SECONDS);
+    Throwable conflict = concurrent.handle((count, e) -> e).get(10, TimeUnit.SECONDS);
+    int retriedCount = relay.relay();
+
+    // then - verify the output
+    assertThat(blockedCount).isEqualTo(1);
+    assertThat(conflict).hasCauseInstanceOf(DataIntegrityViolationException.class);
+    assertThat(retriedCount).isEqualTo(1);
+    List<EmployeeChange> changes = employeeService.getChanges(since, 100).getChanges();
+    assertThat(changes).extracting(EmployeeChange::employeeId).containsExactly(ramesh.getId(), tony.getId());
+    assertThat(changes).extracting(EmployeeChange::seq).containsExactly(since + 1, since + 2);
+    // 制約違反となったリレーはシンクに配信していない
+    assertThat(((InMemoryEmployeeChangeSink) sink).recent()).filteredOn(change -> change.employeeId() == tony.getId())
+      .hasSize(1);
+  }
+}
@@ -0,0 +1,65 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// H2のインメモリDBでアプリケーション全体を起動し、Prometheusエンドポイントに各レイヤーのメトリクスが出力されることを確認する
+// テストではメトリクスの出力が無効化されるため、@AutoConfigureObservabilityで有効にする
+@SpringBootTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "employee.cache.enabled=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private EmployeeService employeeService;
+
+  // JUnit test for Prometheus endpoint
+  @DisplayName("JUnit test for Prometheus endpoint")
+  @Test
+  public void givenEmployeeRequests_whenScrapePrometheus_thenExposeTimersForEachLayer() throws Exception {
+    // given - precondition or setup
+    employeeService.saveEmployee(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+    mockMvc.perform(get("/api/employees/search")
+        .param("firstName", "Ramesh")
+        .param("lastName", "Fadatare"))
+      .andExpect(status().isOk());
+
+    // when - action or the behaviour
+    String scrape = mockMvc.perform(get("/actuator/prometheus"))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getContentAsString();
+
+    // then - verify the output
+    assertThat(scrape)
+      .contains("http_server_requests_seconds_bucket{")
+      .contains("uri=\"/api/employees/search\"")
+      .contains("employee_service_seconds_bucket{")
+      .contains("method=\"getEmployeesByName\"")
+      .contains("spring_data_repository_invocations_seconds_bucket{")
+      .contains("method=\"findByLastNameAndFirstName\"")
+      .contains("hikaricp_connections_acquire_seconds_bucket{");
+  }
+}
@@ -0,0 +1,57 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// prodプロファイルのデータソース設定が、プライマリ・レプリカのHikariの設定として読み込まれることを確認する
+// Connector/J固有のプロパティはH2に渡せないため、アプリケーションは起動せずに設定のバインドだけを確認する
+public class ProdProfileTests {
+
+  private Binder binder;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    List<PropertySource<?>> sources = new PropertiesPropertySourceLoader()
+      .load("prod", new ClassPathResource("application-prod.properties"));
+    binder = new Binder(ConfigurationPropertySources.from(sources));
+  }
+
+  // JUnit test for prod profile datasource settings
+  @DisplayName("JUnit test for prod profile datasource settings")
+  @Test
+  public void givenProdProfile_whenBindHikariConfig_thenEnableStatementCacheAndBatchRewrite() {
+    // given - precondition or setup
+    // when - action or the behaviour
+    HikariConfig primary = binder.bind("spring.datasource.hikari", HikariConfig.class).get();
+    HikariConfig replica = binder.bind("employee.datasource.replica.hikari", HikariConfig.class).get();
+
+    // then - verify the output
+    assertThat(primary.getMaximumPoolSize()).isEqualTo(20);
+    assertThat(primary.getMinimumIdle()).isEqualTo(primary.getMaximumPoolSize());
+    assertThat(primary.getDataSourceProperties())
+      .containsEntry("useServerPrepStmts", "true")
+      .containsEntry("cachePrepStmts", "true")
+      .containsEntry("prepStmtCacheSize", "250")
+      .containsEntry("prepStmtCacheSqlLimit", "2048")
+      .containsEntry("rewriteBatchedStatements", "true");
+    assertThat(replica.getDataSourceProperties())
+      .containsEntry("useServerPrepStmts", "true")
+      .containsEntry("cachePrepStmts", "true");
+    assertThat(binder.bind("spring.jpa.properties", Bindable.mapOf(String.class, String.class)).get())
+      .containsEntry("hibernate.query.plan_cache_max_size", "2048")
+      .containsEntry("hibernate.query.in_clause_parameter_padding", "true");
+  }
+}
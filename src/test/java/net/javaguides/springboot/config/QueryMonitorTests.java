@@ -0,0 +1,123 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.exception.QueryLimitExceededException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.monitoring.QueryMonitor;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({SchemaMigrationConfig.class, QueryMonitorConfig.class})
+public class QueryMonitorTests {
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  private QueryMonitor queryMonitor;
+  @Autowired
+  private QueryMonitorProperties properties;
+
+  @BeforeEach
+  public void setup() {
+    properties.setSlowQueryThreshold(Duration.ofHours(1));
+    properties.setMaxStatementsPerRequest(10);
+    properties.setFailOnViolation(false);
+    queryMonitor.reset();
+
+    employeeRepository.saveAndFlush(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    queryMonitor.endRequest();
+  }
+
+  // JUnit test for slow query detection
+  @DisplayName("JUnit test for slow query detection")
+  @Test
+  public void givenZeroThreshold_whenFindByJPQL_thenRecordSlowQueryWithCaller() {
+    // given - precondition or setup
+    properties.setSlowQueryThreshold(Duration.ZERO);
+
+    // when - action or the behaviour
+    employeeRepository.findByJPQL("Ramesh", "Fadatare");
+
+    // then - verify the output
+    QueryMonitor.Report report = queryMonitor.report();
+    assertThat(report.slowQueries()).hasSize(1);
+    assertThat(report.slowQueries().get(0).query()).contains("employees");
+    assertThat(report.slowQueries().get(0).caller()).isEqualTo("config.QueryMonitorTests.givenZeroThreshold_whenFindByJPQL_thenRecordSlowQueryWithCaller");
+  }
+
+  // JUnit test for statement count per request (N+1 detection)
+  @DisplayName("JUnit test for statement count per request")
+  @Test
+  public void givenStatementLimit_whenRequestExceedsLimit_thenRecordViolationOnce() {
+    // given - precondition or setup
+    properties.setMaxStatementsPerRequest(2);
+    queryMonitor.beginRequest("GET /api/employees");
+
+    // when - action or the behaviour
+    for (int i = 0; i < 4; i++) {
+      employeeRepository.findByNativeSQL("Ramesh", "Fadatare");
+    }
+    int statementCount = queryMonitor.endRequest();
+
+    // then - verify the output
+    assertThat(statementCount).isEqualTo(4);
+    assertThat(queryMonitor.report().requestViolations())
+      .singleElement()
+      .satisfies(violation -> assertThat(violation.request()).isEqualTo("GET /api/employees"));
+  }
+
+  // JUnit test for bulk requests excluded from statement count
+  @DisplayName("JUnit test for bulk requests excluded from statement count")
+  @Test
+  public void givenBulkRequest_whenRequestExceedsLimit_thenNoViolation() {
+    // given - precondition or setup
+    properties.setMaxStatementsPerRequest(1);
+    properties.setFailOnViolation(true);
+    queryMonitor.beginRequest("POST /api/employees/batch");
+
+    // when - action or the behaviour
+    for (int i = 0; i < 3; i++) {
+      employeeRepository.findByNativeSQL("Ramesh", "Fadatare");
+    }
+    int statementCount = queryMonitor.endRequest();
+
+    // then - verify the output
+    assertThat(statementCount).isZero();
+    assertThat(queryMonitor.report().requestViolations()).isEmpty();
+  }
+
+  // JUnit test for fail on violation
+  @DisplayName("JUnit test for fail on violation")
+  @Test
+  public void givenFailOnViolation_whenRequestExceedsLimit_thenThrowsException() {
+    // given - precondition or setup
+    properties.setMaxStatementsPerRequest(1);
+    properties.setFailOnViolation(true);
+    queryMonitor.beginRequest("GET /api/employees");
+    employeeRepository.findByNativeSQL("Ramesh", "Fadatare");
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> employeeRepository.findByNativeSQL("Ramesh", "Fadatare"))
+      .isInstanceOf(QueryLimitExceededException.class);
+  }
+}
@@ -0,0 +1,193 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import net.javaguides.springboot.datasource.ReadYourWritesFilter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// プライマリとレプリカの代わりに2つのH2インメモリDBを使用し、読み取り専用トランザクションの振り分けを確認する
+// レプリカにはレプリケーションされないため、レプリカにだけ存在する行で読み取り先を判別する
+@SpringBootTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "employee.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+  "employee.datasource.replica.username=sa",
+  "employee.datasource.replica.password=",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "employee.cache.enabled=false"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  @Qualifier("primaryDataSource")
+  private DataSource primaryDataSource;
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private DataSource replicaDataSource;
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+
+  @BeforeEach
+  public void setup() {
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+    primary.update("delete from employees");
+    replica.execute("drop table if exists employees");
+    replica.execute("create table employees (id bigint primary key, first_name varchar(255) not null,"
+      + " last_name varchar(255) not null, email varchar(255) not null, version bigint not null,"
+      + " deleted boolean not null, created_at timestamp(6), updated_at timestamp(6))");
+    replica.update("insert into employees (id, first_name, last_name, email, version, deleted)"
+      + " values (1000, 'Tony', 'Stark', 'tony@gmail.com', 0, false)");
+  }
+
+  // JUnit test for routing read only transaction to replica
+  @DisplayName("JUnit test for routing read only transaction to replica")
+  @Test
+  public void givenRowOnlyInReplica_whenGetEmployeeById_thenReadFromReplica() throws Exception {
+    // given - precondition or setup
+
+    // when - action or the behaviour
+    // then - verify the output
+    mockMvc.perform(get("/api/employees/{id}", 1000))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.email", is("tony@gmail.com")));
+  }
+
+  // JUnit test for routing declared query methods to replica
+  @DisplayName("JUnit test for routing declared query methods to replica")
+  @Test
+  public void givenRowOnlyInReplica_whenCallQueryMethodsWithoutTransaction_thenReadFromReplica() {
+    // given - precondition or setup
+
+    // when - action or the behaviour
+    // then - verify the output
+    // @Query・ネイティブクエリ・派生クエリのメソッドも、トランザクション外から呼び出すとレプリカから読む
+    assertThat(employeeRepository.findByJPQL("Tony", "Stark")).isPresent();
+    assertThat(employeeRepository.findByNativeSQLNamed("Tony", "Stark")).isPresent();
+    assertThat(employeeRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(10)))
+      .extracting(Employee::getId)
+      .containsExactly(1000L);
+  }
+
+  // JUnit test for read your writes
+  @DisplayName("JUnit test for read your writes")
+  @Test
+  public void givenCreatedEmployee_whenGetWithCookie_thenReadFromPrimary() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    MvcResult created = mockMvc.perform(post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)))
+      .andExpect(status().isCreated())
+      .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+      .andReturn();
+    long employeeId = objectMapper.readValue(created.getResponse().getContentAsString(), Employee.class).getId();
+    Cookie cookie = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+    // when - action or the behaviour
+    // then - verify the output
+    // 書き込みはプライマリに行われ、レプリカには存在しない
+    assertThat(primary.queryForObject("select count(*) from employees where id = ?", Integer.class, employeeId)).isEqualTo(1);
+    mockMvc.perform(get("/api/employees/{id}", employeeId))
+      .andExpect(status().isNotFound());
+    // Cookieの期限内はプライマリから読み取る
+    mockMvc.perform(get("/api/employees/{id}", employeeId).cookie(cookie))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.email", is("ramesh@gmail.com")));
+  }
+
+  // JUnit test for read your writes with forged cookie
+  @DisplayName("JUnit test for read your writes with forged cookie")
+  @Test
+  public void givenForgedCookie_whenGetEmployee_thenReadFromReplica() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    MvcResult created = mockMvc.perform(post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)))
+      .andExpect(status().isCreated())
+      .andReturn();
+    long employeeId = objectMapper.readValue(created.getResponse().getContentAsString(), Employee.class).getId();
+    String signature = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME).getValue().split("\\.")[1];
+
+    // when - action or the behaviour
+    // then - verify the output
+    // 署名のない期限・期限を書き換えたCookieは無視され、レプリカから読み取る
+    mockMvc.perform(get("/api/employees/{id}", employeeId)
+        .cookie(new Cookie(ReadYourWritesFilter.COOKIE_NAME, String.valueOf(Long.MAX_VALUE))))
+      .andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/employees/{id}", employeeId)
+        .cookie(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.MAX_VALUE + "." + signature)))
+      .andExpect(status().isNotFound());
+  }
+
+  // JUnit test for update through primary
+  @DisplayName("JUnit test for update through primary")
+  @Test
+  public void givenCreatedEmployee_whenUpdateEmployee_thenUpdatePrimary() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    MvcResult created = mockMvc.perform(post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)))
+      .andExpect(status().isCreated())
+      .andReturn();
+    long employeeId = objectMapper.readValue(created.getResponse().getContentAsString(), Employee.class).getId();
+    employee.setFirstName("Ram");
+
+    // when - action or the behaviour
+    mockMvc.perform(put("/api/employees/{id}", employeeId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)))
+      .andExpect(status().isOk());
+
+    // then - verify the output
+    assertThat(primary.queryForObject("select first_name from employees where id = ?", String.class, employeeId))
+      .isEqualTo("Ram");
+  }
+}
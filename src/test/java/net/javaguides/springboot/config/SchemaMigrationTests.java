@@ -0,0 +1,164 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.migration.SchemaMigrator;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// マイグレーションで作成したスキーマでアプリケーションが起動し（ddl-auto=validate）、
+// Employee・EmployeeOutboxEventからHibernateが生成するスキーマと同じ列・インデックス・制約・シーケンスになることを確認する
+@SpringBootTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.jpa.hibernate.ddl-auto=validate",
+  "employee.cache.enabled=false",
+  "employee.outbox.relay-enabled=false"
+})
+public class SchemaMigrationTests {
+
+  private static final String HIBERNATE_URL = "jdbc:h2:mem:hibernate;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+  private static final String LEGACY_URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+  @Autowired
+  private DataSource dataSource;
+  @Autowired
+  private SchemaMigrator schemaMigrator;
+
+  // 比較対象として、マイグレーションを無効にしてHibernateにスキーマを生成させたDBを用意する
+  @BeforeAll
+  public static void createHibernateSchema() {
+    try (ConfigurableApplicationContext context = startApplication(HIBERNATE_URL,
+      "--spring.jpa.hibernate.ddl-auto=create",
+      "--employee.schema-migration.enabled=false")) {
+      context.getBean(DataSource.class);
+    }
+  }
+
+  // JUnit test for schema equivalence between migrations and entities
+  @DisplayName("JUnit test for schema equivalence between migrations and entities")
+  @Test
+  public void givenMigratedSchema_whenCompareWithHibernateSchema_thenSameColumnsIndexesAndConstraints() {
+    // given - precondition or setup
+    JdbcTemplate migrated = new JdbcTemplate(dataSource);
+    JdbcTemplate hibernate = new JdbcTemplate(new DriverManagerDataSource(HIBERNATE_URL, "sa", ""));
+
+    // when - action or the behaviour
+    Map<String, List<Map<String, Object>>> migratedSchema = describe(migrated);
+    Map<String, List<Map<String, Object>>> hibernateSchema = describe(hibernate);
+
+    // then - verify the output
+    assertThat(migratedSchema.get("columns")).isNotEmpty();
+    assertThat(migratedSchema.get("indexes")).isNotEmpty();
+    assertThat(migratedSchema).isEqualTo(hibernateSchema);
+  }
+
+  // JUnit test for startup on an already migrated schema
+  @DisplayName("JUnit test for startup on an already migrated schema")
+  @Test
+  public void givenMigratedSchema_whenMigrateAgain_thenApplyNothingWithinStartupBudget() {
+    // given - precondition or setup
+    long start = System.nanoTime();
+
+    // when - action or the behaviour
+    int applied = schemaMigrator.migrate();
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // then - verify the output
+    // 起動のたびにかかるのは、ファイルの一覧と履歴テーブルの比較だけになる
+    assertThat(applied).isZero();
+    assertThat(elapsedMillis).isLessThan(1000);
+    assertThat(new JdbcTemplate(dataSource).queryForList("select version from schema_migrations order by version", Integer.class))
+      .containsExactly(1, 2, 3, 4, 5, 6);
+  }
+
+  // JUnit test for upgrading a database created before migrations
+  @DisplayName("JUnit test for upgrading a database created before migrations")
+  @Test
+  public void givenOriginalSchemaWithRows_whenStartApplication_thenBaselineAndMigrateKeepingRows() {
+    // given - precondition or setup
+    // マイグレーション導入前のアプリケーション（IDENTITY, ddl-auto=update）が作成したテーブルと登録済みの行
+    JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(LEGACY_URL, "sa", ""));
+    legacy.execute("create table employees (id bigint generated by default as identity, email varchar(255) not null,"
+      + " first_name varchar(255) not null, last_name varchar(255) not null, primary key (id))");
+    legacy.update("insert into employees (first_name, last_name, email) values (?, ?, ?)", "Ramesh", "Fadatare", "ramesh@gmail.com");
+    legacy.update("insert into employees (first_name, last_name, email) values (?, ?, ?)", "John", "Cena", "cena@gmail.com");
+    legacy.update("insert into employees (first_name, last_name, email) values (?, ?, ?)", "Tony", "Stark", "tony@gmail.com");
+
+    // when - action or the behaviour
+    // V1をベースラインとして記録し、V2以降を適用してから ddl-auto=validate で起動する
+    try (ConfigurableApplicationContext context = startApplication(LEGACY_URL,
+      "--spring.jpa.hibernate.ddl-auto=validate")) {
+      EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+
+      // then - verify the output
+      assertThat(legacy.queryForList("select description from schema_migrations order by version", String.class))
+        .hasSize(6)
+        .first().asString().startsWith("<< baseline >>");
+      assertThat(employeeRepository.findAll())
+        .extracting(Employee::getEmail, Employee::getVersion, Employee::isDeleted)
+        .containsExactlyInAnyOrder(
+          tuple("ramesh@gmail.com", 0L, false),
+          tuple("cena@gmail.com", 0L, false),
+          tuple("tony@gmail.com", 0L, false));
+      // employees_seq は登録済みの最大IDの次から払い出すため、既存の行とIDが重複しない
+      List<Employee> saved = employeeRepository.saveAll(List.of(
+        Employee.builder().firstName("Bruce").lastName("Wayne").email("bruce@gmail.com").build(),
+        Employee.builder().firstName("Clark").lastName("Kent").email("clark@gmail.com").build()));
+      assertThat(saved).extracting(Employee::getId).allSatisfy(id -> assertThat(id).isGreaterThan(3L));
+      assertThat(employeeRepository.count()).isEqualTo(5);
+    }
+  }
+
+  private static ConfigurableApplicationContext startApplication(String url, String... args) {
+    List<String> arguments = new ArrayList<>(List.of(
+      "--spring.datasource.url=" + url,
+      "--spring.datasource.username=sa",
+      "--spring.datasource.password=",
+      "--employee.cache.enabled=false",
+      "--employee.outbox.relay-enabled=false"));
+    arguments.addAll(List.of(args));
+    return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+      .web(WebApplicationType.NONE)
+      .run(arguments.toArray(String[]::new));
+  }
+
+  // 列（型・長さ・精度・NULL可否）、インデックス（名前・列の順序）、主キー・ユニーク制約、シーケンスを取得する
+  // 主キーの制約名はDBが自動で付けるため比較しない
+  private static Map<String, List<Map<String, Object>>> describe(JdbcTemplate jdbcTemplate) {
+    String tables = "('employees', 'employee_outbox')";
+    return Map.of(
+      "columns", jdbcTemplate.queryForList("select table_name, column_name, data_type, character_maximum_length,"
+        + " numeric_precision, datetime_precision, is_nullable from information_schema.columns"
+        + " where table_schema = 'public' and table_name in " + tables + " order by table_name, column_name"),
+      "indexes", jdbcTemplate.queryForList("select table_name, index_name, column_name, ordinal_position"
+        + " from information_schema.index_columns where table_schema = 'public' and table_name in " + tables
+        + " and index_name like 'idx_%' order by table_name, index_name, ordinal_position"),
+      "constraints", jdbcTemplate.queryForList("select tc.table_name, tc.constraint_type, kcu.column_name,"
+        + " case when tc.constraint_type = 'UNIQUE' then tc.constraint_name end as constraint_name"
+        + " from information_schema.table_constraints tc join information_schema.key_column_usage kcu"
+        + " on tc.constraint_schema = kcu.constraint_schema and tc.constraint_name = kcu.constraint_name"
+        + " where tc.table_schema = 'public' and tc.table_name in " + tables
+        + " and tc.constraint_type in ('PRIMARY KEY', 'UNIQUE') order by tc.table_name, kcu.column_name"),
+      "sequences", jdbcTemplate.queryForList("select sequence_name, start_value, increment from information_schema.sequences"
+        + " where sequence_schema = 'public' order by sequence_name"));
+  }
+}
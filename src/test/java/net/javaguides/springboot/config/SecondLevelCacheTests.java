@@ -0,0 +1,115 @@
+package net.javaguides.springboot.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2次キャッシュへの反映はトランザクションのコミット時に行われるため、テストメソッドをトランザクションで囲まない
+@DataJpaTest(properties = "employee.cache.enabled=true")
+@Import({SchemaMigrationConfig.class, SecondLevelCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTests {
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    employeeRepository.deleteAll();
+    entityManagerFactory.getCache().evictAll();
+    employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+  }
+
+  // JUnit test for second-level cache on find by id
+  @DisplayName("JUnit test for second-level cache on find by id")
+  @Test
+  public void givenSavedEmployee_whenFindById_thenEmployeeIsCached() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+    entityManagerFactory.getCache().evictAll();
+
+    // when - action or the behaviour
+    employeeRepository.findById(employee.getId());
+
+    // then - verify the output
+    assertThat(entityManagerFactory.getCache().contains(Employee.class, employee.getId())).isTrue();
+  }
+
+  // JUnit test for second-level cache invalidation on update
+  @DisplayName("JUnit test for second-level cache invalidation on update")
+  @Test
+  public void givenCachedEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+    Employee cachedEmployee = employeeRepository.findById(employee.getId()).get();
+
+    // when - action or the behaviour
+    cachedEmployee.setEmail("ram@gmail.com");
+    employeeRepository.save(cachedEmployee);
+    Employee result = employeeRepository.findById(employee.getId()).get();
+
+    // then - verify the output
+    assertThat(result.getEmail()).isEqualTo("ram@gmail.com");
+  }
+
+  // JUnit test for second-level cache invalidation on delete
+  @DisplayName("JUnit test for second-level cache invalidation on delete")
+  @Test
+  public void givenCachedEmployee_whenDeleteById_thenReturnEmpty() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+    employeeRepository.findById(employee.getId());
+
+    // when - action or the behaviour
+    employeeRepository.deleteById(employee.getId());
+
+    // then - verify the output
+    assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+  }
+
+  // JUnit test for second-level cache on partial update
+  @DisplayName("JUnit test for second-level cache on partial update")
+  @Test
+  public void givenCachedEmployees_whenUpdatePartially_thenEvictOnlyUpdatedEmployee() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("John")
+      .lastName("Cena")
+      .email("cena@gmail.com")
+      .build();
+    employeeRepository.saveAll(List.of(employee, employee2));
+    employeeRepository.findById(employee.getId());
+    employeeRepository.findById(employee2.getId());
+
+    // when - action or the behaviour
+    employeeRepository.updatePartially(employee.getId(), null, null, null, "ram@gmail.com", Instant.now());
+    employeeRepository.evictFromCache(List.of(employee.getId()));
+
+    // then - verify the output
+    assertThat(entityManagerFactory.getCache().contains(Employee.class, employee2.getId())).isTrue();
+    assertThat(entityManagerFactory.getCache().contains(Employee.class, employee.getId())).isFalse();
+    assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("ram@gmail.com");
+  }
+}
@@ -0,0 +1,98 @@
+package net.javaguides.springboot.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.monitoring.SqlLogListener;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// QueryMonitorと同じデータソースプロキシにSQLログのリスナーが登録され、ロガーのレベルで出力が切り替わることを確認する
+// （/actuator/loggers もロガーのレベルを変更する）
+@DataJpaTest
+@Import({SchemaMigrationConfig.class, QueryMonitorConfig.class, SqlLogConfig.class})
+public class SqlLogTests {
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  private SqlLogProperties properties;
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger(SqlLogListener.LOGGER_NAME);
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  @BeforeEach
+  public void setup() {
+    properties.setSampleRate(1.0);
+    properties.setIncludeParameters(false);
+    employeeRepository.saveAndFlush(Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build());
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    logger.detachAppender(appender);
+    logger.setLevel(null);
+  }
+
+  // JUnit test for SQL log with debug level
+  @DisplayName("JUnit test for SQL log with debug level")
+  @Test
+  public void givenDebugLevel_whenFindByJPQL_thenLogParameterizedQueryWithoutValues() {
+    // given - precondition or setup
+    logger.setLevel(Level.DEBUG);
+
+    // when - action or the behaviour
+    employeeRepository.findByJPQL("Ramesh", "Fadatare");
+
+    // then - verify the output
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.get(0).getFormattedMessage())
+      .contains("ms, success=true", "first_name=?")
+      .doesNotContain("Ramesh");
+  }
+
+  // JUnit test for SQL log with default level
+  @DisplayName("JUnit test for SQL log with default level")
+  @Test
+  public void givenDefaultLevel_whenFindByJPQL_thenNotLogged() {
+    // given - precondition or setup
+    // when - action or the behaviour
+    employeeRepository.findByJPQL("Ramesh", "Fadatare");
+
+    // then - verify the output
+    assertThat(appender.list).isEmpty();
+  }
+
+  // JUnit test for logback configuration
+  @DisplayName("JUnit test for logback configuration")
+  @Test
+  public void givenLogbackSpringXml_whenStartApplication_thenKeepDefaultAppendersAndAddAsyncSqlAppender() {
+    // given - precondition or setup
+    Logger rootLogger = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+
+    // when - action or the behaviour
+    // then - verify the output
+    // Spring Bootの既定のコンソール・ファイル出力はそのまま使い、SQLログだけを非同期アペンダーに出力する
+    assertThat(rootLogger.getAppender("CONSOLE")).isNotNull();
+    assertThat(rootLogger.getAppender("FILE")).isNotNull();
+    assertThat(logger.getAppender("ASYNC_SQL")).isNotNull();
+    assertThat(logger.isAdditive()).isFalse();
+  }
+}
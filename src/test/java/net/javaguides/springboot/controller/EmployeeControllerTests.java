@@ -1,8 +1,25 @@
 package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ResourceVersionMismatchException;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
+import net.javaguides.springboot.exception.UnknownFieldException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.model.EmployeePage;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+import net.javaguides.springboot.model.EmployeeSyncCursor;
+import net.javaguides.springboot.model.EmployeeSyncPage;
+import net.javaguides.springboot.model.EmployeeTombstone;
+import net.javaguides.springboot.service.EmployeeSearchService;
 import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService.State;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService.WriteStatus;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,19 +27,35 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -33,6 +66,10 @@ public class EmployeeControllerTests {
   private MockMvc mockMvc;
   @MockBean
   private EmployeeService employeeService;
+  @MockBean
+  private EmployeeSearchService employeeSearchService;
+  @MockBean
+  private EmployeeWriteBehindService writeBehindService;
 
   @Autowired
   private ObjectMapper objectMapper;
@@ -70,6 +107,172 @@ public class EmployeeControllerTests {
         is(employee.getEmail())));
   }
 
+  // JUnit test for Create Employee REST API with Prefer: respond-async
+  @DisplayName("JUnit test for Create Employee REST API with Prefer: respond-async")
+  @Test
+  public void givenRespondAsync_whenCreateEmployee_thenReturn202WithTrackingId() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    UUID trackingId = UUID.randomUUID();
+    given(writeBehindService.submit(any(Employee.class)))
+      .willReturn(new WriteStatus(trackingId, State.PENDING, null, null));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      post("/api/employees")
+        .header("Prefer", "respond-async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isAccepted())
+      .andExpect(header().string("Location", "/api/employees/writes/" + trackingId))
+      .andExpect(jsonPath("$.trackingId", is(trackingId.toString())))
+      .andExpect(jsonPath("$.state", is("PENDING")));
+    verify(employeeService, never()).saveEmployee(any(Employee.class));
+  }
+
+  // JUnit test for Create Employee REST API with Prefer: respond-async among other preferences
+  @DisplayName("JUnit test for Create Employee REST API with respond-async among other preferences")
+  @Test
+  public void givenRespondAsyncWithOtherPreferences_whenCreateEmployee_thenReturn202() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    UUID trackingId = UUID.randomUUID();
+    given(writeBehindService.submit(any(Employee.class)))
+      .willReturn(new WriteStatus(trackingId, State.PENDING, null, null));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      post("/api/employees")
+        .header("Prefer", "wait=10, Respond-Async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isAccepted())
+      .andExpect(header().string("Preference-Applied", "respond-async"))
+      .andExpect(jsonPath("$.trackingId", is(trackingId.toString())));
+    verify(employeeService, never()).saveEmployee(any(Employee.class));
+  }
+
+  // JUnit test for Create Employee REST API with Prefer but without respond-async
+  @DisplayName("JUnit test for Create Employee REST API with Prefer but without respond-async")
+  @Test
+  public void givenPreferWithoutRespondAsync_whenCreateEmployee_thenReturn201() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    given(employeeService.saveEmployee(any(Employee.class)))
+      .willAnswer((invocation) -> invocation.getArgument(0));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      post("/api/employees")
+        .header("Prefer", "return=representation")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    verify(writeBehindService, never()).submit(any(Employee.class));
+  }
+
+  // JUnit test for Get Write Status REST API
+  @DisplayName("JUnit test for Get Write Status REST API")
+  @Test
+  public void givenTrackingId_whenGetWriteStatus_thenReturnStatus() throws Exception {
+    // given - precondition or setup
+    UUID trackingId = UUID.randomUUID();
+    given(writeBehindService.getStatus(trackingId))
+      .willReturn(Optional.of(new WriteStatus(trackingId, State.WRITTEN, 1L, null)));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/writes/{trackingId}", trackingId));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.state", is("WRITTEN")))
+      .andExpect(jsonPath("$.employeeId", is(1)));
+  }
+
+  // JUnit test for Create Employee REST API with duplicate email
+  @DisplayName("JUnit test for Create Employee REST API with duplicate email")
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+
+    given(employeeService.saveEmployee(any(Employee.class)))
+      .willThrow(new ResourceAlreadyExistsException("Employee already exists with given email:" + employee.getEmail()));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isConflict());
+  }
+
+  // JUnit test for Create Employees (batch) REST API
+  @DisplayName("JUnit test for Create Employees (batch) REST API")
+  @Test
+  public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+    // given - precondition or setup
+    List<Employee> listOfEmployees = new ArrayList<>();
+    listOfEmployees.add(Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+    listOfEmployees.add(Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+    given(employeeService.saveEmployees(any()))
+      .willAnswer((invocation) -> invocation.getArgument(0));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      post("/api/employees/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(listOfEmployees))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.length()", is(listOfEmployees.size())))
+      .andExpect(jsonPath("$.[0].email", is(listOfEmployees.get(0).getEmail())))
+      .andExpect(jsonPath("$.[1].email", is(listOfEmployees.get(1).getEmail())));
+  }
+
   // JUnit test for Get All Employees REST API
   @DisplayName("JUnit test for Get All Employees REST API")
   @Test
@@ -97,6 +300,362 @@ public class EmployeeControllerTests {
       .andExpect(jsonPath("$.[1].email", is(listOfEmployees.get(1).getEmail())));
   }
 
+  // JUnit test for Get All Employees REST API with fields parameter
+  @DisplayName("JUnit test for Get All Employees REST API with fields parameter")
+  @Test
+  public void givenFieldsParameter_whenGetAllEmployees_thenReturnOnlyRequestedFields() throws Exception {
+    // given - precondition or setup
+    given(employeeService.getAllEmployeeFields(List.of("id", "email")))
+      .willReturn(List.of(Map.of("id", 1L, "email", "ramesh@gmail.com")));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "id,email"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.size()", is(1)))
+      .andExpect(jsonPath("$[0].id", is(1)))
+      .andExpect(jsonPath("$[0].email", is("ramesh@gmail.com")))
+      .andExpect(jsonPath("$[0].firstName").doesNotExist());
+    verify(employeeService, never()).getAllEmployees();
+  }
+
+  // JUnit test for Get All Employees REST API with unknown field
+  @DisplayName("JUnit test for Get All Employees REST API with unknown field")
+  @Test
+  public void givenUnknownField_whenGetAllEmployees_thenReturn400() throws Exception {
+    // given - precondition or setup
+    given(employeeService.getAllEmployeeFields(List.of("password")))
+      .willThrow(new UnknownFieldException("Unknown field:password"));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "password"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isBadRequest());
+  }
+  // JUnit test for Get Changes REST API
+  @DisplayName("JUnit test for Get Changes REST API")
+  @Test
+  public void givenSince_whenGetChanges_thenReturnChangesAfterSince() throws Exception {
+    // given - precondition or setup
+    EmployeeChange change = new EmployeeChange(11L, 1L, EmployeeOutboxEvent.Type.CREATED, Instant.now(),
+      "{\"id\":1,\"email\":\"ramesh@gmail.com\"}");
+    given(employeeService.getChanges(10L, 100)).willReturn(new EmployeeChangePage(List.of(change), 11L));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/changes").param("since", "10"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.changes[0].seq", is(11)))
+      .andExpect(jsonPath("$.changes[0].type", is("CREATED")))
+      .andExpect(jsonPath("$.changes[0].employee.email", is("ramesh@gmail.com")))
+      .andExpect(jsonPath("$.nextSince", is(11)));
+  }
+
+  // JUnit test for Get Changes REST API with purged since
+  @DisplayName("JUnit test for Get Changes REST API with since older than the change feed retention")
+  @Test
+  public void givenPurgedSince_whenGetChanges_thenReturnGone() throws Exception {
+    // given - precondition or setup
+    given(employeeService.getChanges(10L, 100)).willThrow(new SyncWindowExpiredException("purged"));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/changes").param("since", "10"));
+
+    // then - verify the output
+    response.andDo(print()).andExpect(status().isGone());
+  }
+
+  // JUnit test for Search Employees REST API
+  @DisplayName("JUnit test for Search Employees REST API")
+  @Test
+  public void givenQuery_whenSearchEmployees_thenReturnHits() throws Exception {
+    // given - precondition or setup
+    given(employeeSearchService.search("ram", 20))
+      .willReturn(List.of(new EmployeeSearchHit(1L, "Ramesh", "Fadatare", "ramesh@gmail.com")));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "ram"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.size()", is(1)))
+      .andExpect(jsonPath("$[0].id", is(1)))
+      .andExpect(jsonPath("$[0].firstName", is("Ramesh")));
+    verify(employeeService, never()).getEmployeesByName(any(), any());
+  }
+
+  // JUnit test for Get Employee By Email REST API
+  @DisplayName("JUnit test for Get Employee By Email REST API")
+  @Test
+  public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    given(employeeService.getEmployeeByEmail("ramesh@gmail.com")).willReturn(Optional.of(employee));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/search").param("email", "ramesh@gmail.com"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(header().string("ETag", "\"0\""))
+      .andExpect(header().string("Vary", "Accept"))
+      .andExpect(jsonPath("$.email", is(employee.getEmail())));
+  }
+
+  // JUnit test for Get All Employees REST API with Smile encoding
+  @DisplayName("JUnit test for Get All Employees REST API with Smile encoding")
+  @Test
+  public void givenSmileAcceptHeader_whenGetAllEmployees_thenReturnSmileEncodedList() throws Exception {
+    // given - precondition or setup
+    List<Employee> listOfEmployees = new ArrayList<>();
+    listOfEmployees.add(Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+    listOfEmployees.add(Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+    given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+
+    // when - action or the behaviour
+    MvcResult result = mockMvc.perform(get("/api/employees").accept("application/x-jackson-smile"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType("application/x-jackson-smile"))
+      .andReturn();
+
+    // then - verify the output
+    Employee[] employees = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(), Employee[].class);
+    assertThat(employees).extracting(Employee::getEmail).containsExactly("ramesh@gmail.com", "tony@gmail.com");
+  }
+
+
+  // JUnit test for Get Employees REST API with keyset pagination
+  @DisplayName("JUnit test for Get Employees REST API with keyset pagination")
+  @Test
+  public void givenAfterAndLimit_whenGetEmployees_thenReturnEmployeePage() throws Exception {
+    // given - precondition or setup
+    List<Employee> listOfEmployees = new ArrayList<>();
+    listOfEmployees.add(Employee.builder().id(11L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+    listOfEmployees.add(Employee.builder().id(12L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+    given(employeeService.getEmployees(10L, 2)).willReturn(new EmployeePage(listOfEmployees, 12L));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees")
+      .param("after", "10")
+      .param("limit", "2"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.employees.length()", is(listOfEmployees.size())))
+      .andExpect(jsonPath("$.employees[0].email", is(listOfEmployees.get(0).getEmail())))
+      .andExpect(jsonPath("$.nextCursor", is(12)));
+  }
+
+  // JUnit test for Get Employees REST API with keyset pagination without limit
+  @DisplayName("JUnit test for Get Employees REST API with keyset pagination without limit")
+  @Test
+  public void givenAfterOnly_whenGetEmployees_thenReturnDefaultSizedPage() throws Exception {
+    // given - precondition or setup
+    List<Employee> listOfEmployees = new ArrayList<>();
+    listOfEmployees.add(Employee.builder().id(11L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+    given(employeeService.getEmployees(10L, 100)).willReturn(new EmployeePage(listOfEmployees, null));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("after", "10"));
+
+    // then - verify the output
+    // 全件取得（getAllEmployees）にはならない
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.employees.length()", is(listOfEmployees.size())))
+      .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    verify(employeeService, never()).getAllEmployees();
+  }
+
+  // JUnit test for Get Employees REST API with keyset pagination (last page)
+  @DisplayName("JUnit test for Get Employees REST API with keyset pagination on last page")
+  @Test
+  public void givenLimitOnly_whenGetEmployees_thenReturnLastPage() throws Exception {
+    // given - precondition or setup
+    given(employeeService.getEmployees(0L, 100)).willReturn(new EmployeePage(List.of(), null));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "100"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.employees.length()", is(0)))
+      .andExpect(jsonPath("$.nextCursor", nullValue()));
+  }
+
+  // JUnit test for Get Employees REST API with modifiedSince
+  @DisplayName("JUnit test for Get Employees REST API with modifiedSince")
+  @Test
+  public void givenModifiedSinceAndLimit_whenGetEmployees_thenReturnSyncPage() throws Exception {
+    // given - precondition or setup
+    Instant since = Instant.parse("2024-06-01T00:00:00Z");
+    Instant watermark = Instant.parse("2024-06-01T00:10:00Z");
+    Employee employee = Employee.builder().id(11L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    EmployeeSyncCursor cursor = new EmployeeSyncCursor(watermark, EmployeeSyncCursor.Kind.DELETED, 120L);
+    given(employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(since), 50)).willReturn(new EmployeeSyncPage(
+      List.of(employee), List.of(new EmployeeTombstone(12L, since.plusSeconds(1))), watermark, cursor));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees")
+      .param("modifiedSince", "2024-06-01T00:00:00Z")
+      .param("limit", "50"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.employees[0].email", is(employee.getEmail())))
+      .andExpect(jsonPath("$.deleted[0].id", is(12)))
+      .andExpect(jsonPath("$.watermark", is("2024-06-01T00:10:00Z")))
+      .andExpect(jsonPath("$.cursor", is("2024-06-01T00:10:00Z,deleted,120")));
+  }
+
+  // JUnit test for Get Employees REST API with sync cursor
+  @DisplayName("JUnit test for Get Employees REST API with sync cursor")
+  @Test
+  public void givenSyncCursor_whenGetEmployees_thenContinueFromCursor() throws Exception {
+    // given - precondition or setup
+    EmployeeSyncCursor cursor = new EmployeeSyncCursor(Instant.parse("2024-06-01T00:10:00Z"),
+      EmployeeSyncCursor.Kind.DELETED, 120L);
+    EmployeeSyncCursor next = new EmployeeSyncCursor(cursor.timestamp(), EmployeeSyncCursor.Kind.DELETED, 121L);
+    given(employeeService.getEmployeesModifiedSince(cursor, 1)).willReturn(new EmployeeSyncPage(
+      List.of(), List.of(new EmployeeTombstone(13L, cursor.timestamp())), cursor.timestamp(), next));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees")
+      .param("cursor", "2024-06-01T00:10:00Z,deleted,120")
+      .param("limit", "1"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deleted[0].id", is(13)))
+      .andExpect(jsonPath("$.cursor", is("2024-06-01T00:10:00Z,deleted,121")));
+  }
+
+  // JUnit test for Get Employees REST API with invalid sync cursor
+  @DisplayName("JUnit test for Get Employees REST API with invalid sync cursor")
+  @Test
+  public void givenInvalidSyncCursor_whenGetEmployees_thenReturnBadRequest() throws Exception {
+    // given - precondition or setup
+    String cursor = "2024-06-01T00:10:00Z,unknown,1";
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("cursor", cursor));
+
+    // then - verify the output
+    response.andDo(print()).andExpect(status().isBadRequest());
+  }
+
+  // JUnit test for Get Employees REST API with expired modifiedSince
+  @DisplayName("JUnit test for Get Employees REST API with modifiedSince older than tombstone retention")
+  @Test
+  public void givenExpiredModifiedSince_whenGetEmployees_thenReturnGone() throws Exception {
+    // given - precondition or setup
+    Instant since = Instant.parse("2000-01-01T00:00:00Z");
+    given(employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(since), 1000))
+      .willThrow(new SyncWindowExpiredException("expired"));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees").param("modifiedSince", "2000-01-01T00:00:00Z"));
+
+    // then - verify the output
+    response.andDo(print()).andExpect(status().isGone());
+  }
+
+  // JUnit test for Export Employees REST API
+  @DisplayName("JUnit test for Export Employees REST API")
+  @Test
+  public void givenListOfEmployees_whenExportEmployees_thenReturnNdjson() throws Exception {
+    // given - precondition or setup
+    List<Employee> listOfEmployees = new ArrayList<>();
+    listOfEmployees.add(Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+    listOfEmployees.add(Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+    willAnswer(invocation -> {
+      Consumer<Employee> consumer = invocation.getArgument(0);
+      listOfEmployees.forEach(consumer);
+      return null;
+    }).given(employeeService).exportEmployees(any());
+
+    // when - action or the behaviour
+    // StreamingResponseBodyは非同期で書き込まれるため、asyncDispatchで結果を取得する
+    MvcResult mvcResult = mockMvc.perform(get("/api/employees/export"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    ResultActions response = mockMvc.perform(asyncDispatch(mvcResult));
+
+    // then - verify the output
+    String expected = objectMapper.writeValueAsString(listOfEmployees.get(0)) + "\n"
+      + objectMapper.writeValueAsString(listOfEmployees.get(1));
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+      .andExpect(content().string(expected));
+  }
+
+  // JUnit test for Export Employees REST API async timeout
+  @DisplayName("JUnit test for Export Employees REST API async timeout")
+  @Test
+  public void givenExport_whenExportEmployees_thenAsyncTimeoutCoversLongExports() throws Exception {
+    // given - precondition or setup
+    willDoNothing().given(employeeService).exportEmployees(any());
+
+    // when - action or the behaviour
+    MvcResult mvcResult = mockMvc.perform(get("/api/employees/export"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    // then - verify the output
+    // コンテナの既定値（Tomcatでは30秒）ではなく、spring.mvc.async.request-timeout（2時間）が適用される
+    assertThat(mvcResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(2).toMillis());
+  }
+
+  // JUnit test for Search Employees By Name REST API
+  @DisplayName("JUnit test for Search Employees By Name REST API")
+  @Test
+  public void givenFirstNameAndLastName_whenSearchEmployees_thenReturnEmployeesList() throws Exception {
+    // given - precondition or setup
+    Employee employee = Employee.builder()
+      .id(1L)
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    given(employeeService.getEmployeesByName("Ramesh", "Fadatare")).willReturn(List.of(employee));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/search")
+      .param("firstName", "Ramesh")
+      .param("lastName", "Fadatare"));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()", is(1)))
+      .andExpect(jsonPath("$.[0].email", is(employee.getEmail())));
+  }
+
   // positive scenario - valid employee id
   // JUnit test for Get Employee By Id REST API
   @DisplayName("JUnit test for Get Employee By Id REST API")
@@ -119,11 +678,67 @@ public class EmployeeControllerTests {
     response
       .andDo(print())
       .andExpect(status().isOk())
+      .andExpect(header().string("ETag", "\"0\""))
+      .andExpect(header().string("Vary", "Accept"))
       .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
       .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
       .andExpect(jsonPath("$.email", is(employee.getEmail())));
   }
 
+  // JUnit test for Get Employee By Id REST API with If-None-Match
+  @DisplayName("JUnit test for Get Employee By Id REST API with If-None-Match")
+  @Test
+  public void givenCurrentETag_whenGetEmployeeByID_thenReturn304() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee employee = Employee.builder()
+      .id(employeeId)
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .version(3)
+      .build();
+    given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+      .header("If-None-Match", "\"3\""));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNotModified())
+      .andExpect(content().string(""));
+  }
+
+  // JUnit test for Get Employee By Id REST API with Smile encoding and If-None-Match
+  @DisplayName("JUnit test for Get Employee By Id REST API with Smile encoding and If-None-Match")
+  @Test
+  public void givenSmileAcceptHeaderAndCurrentETag_whenGetEmployeeByID_thenReturn304VaryingByAccept() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee employee = Employee.builder()
+      .id(employeeId)
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .version(3)
+      .build();
+    given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+      .accept("application/x-jackson-smile")
+      .header("If-None-Match", "\"3\""));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNotModified())
+      .andExpect(header().string("ETag", "\"3\""))
+      .andExpect(header().string("Vary", "Accept"));
+  }
+
   // negative scenario - invalid employee id
   // JUnit test for Get Employee By Id REST API
   @DisplayName("JUnit test for Get Employee By Invalid Id REST API")
@@ -186,6 +801,40 @@ public class EmployeeControllerTests {
       .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
   }
 
+  // JUnit test for update employee REST API with stale If-Match
+  @DisplayName("JUnit test for update employee REST API with stale If-Match")
+  @Test
+  public void givenStaleIfMatch_whenUpdateEmployee_thenReturn412() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee savedEmployee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@email.com")
+      .version(2)
+      .build();
+    Employee updatedEmployee = Employee.builder()
+      .firstName("Ram")
+      .lastName("Jadhav")
+      .email("ram@email.com")
+      .build();
+    given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      put("/api/employees/{id}", employeeId)
+        .header("If-Match", "\"1\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(updatedEmployee))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isPreconditionFailed());
+    verify(employeeService, never()).updateEmployee(any(Employee.class));
+  }
+
   // negative scenario - invalid employee id
   // JUnit test for update employee REST API - negative scenario
   @DisplayName("JUnit test for update employee REST API - negative scenario")
@@ -220,6 +869,116 @@ public class EmployeeControllerTests {
       .andExpect(status().isNotFound());
   }
 
+  // JUnit test for patch employee REST API - positive scenario
+  @DisplayName("JUnit test for patch employee REST API - positive scenario")
+  @Test
+  public void givenEmployeeId_whenPatchEmployee_thenReturn204() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    given(employeeService.patchEmployee(eq(employeeId), isNull(), any(Employee.class))).willReturn(true);
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      patch("/api/employees/{id}", employeeId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Ram\"}")
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNoContent());
+  }
+
+  // JUnit test for patch employee REST API - negative scenario
+  @DisplayName("JUnit test for patch employee REST API - negative scenario")
+  @Test
+  public void givenInvalidEmployeeId_whenPatchEmployee_thenReturn404() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    given(employeeService.patchEmployee(eq(employeeId), isNull(), any(Employee.class))).willReturn(false);
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      patch("/api/employees/{id}", employeeId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Ram\"}")
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNotFound());
+  }
+
+  // JUnit test for patch employee REST API with If-Match
+  @DisplayName("JUnit test for patch employee REST API with If-Match")
+  @Test
+  public void givenIfMatch_whenPatchEmployee_thenReturn204WithNewETag() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    given(employeeService.patchEmployee(eq(employeeId), eq(1L), any(Employee.class))).willReturn(true);
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      patch("/api/employees/{id}", employeeId)
+        .header("If-Match", "\"1\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Ram\"}")
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNoContent())
+      .andExpect(header().string("ETag", "\"2\""));
+  }
+
+  // JUnit test for patch employee REST API with stale If-Match
+  @DisplayName("JUnit test for patch employee REST API with stale If-Match")
+  @Test
+  public void givenStaleIfMatch_whenPatchEmployee_thenReturn412() throws Exception {
+    // given - precondition or setup
+    long employeeId = 1L;
+    given(employeeService.patchEmployee(eq(employeeId), eq(1L), any(Employee.class)))
+      .willThrow(new ResourceVersionMismatchException("Employee version does not match:" + employeeId));
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      patch("/api/employees/{id}", employeeId)
+        .header("If-Match", "\"1\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Ram\"}")
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isPreconditionFailed());
+  }
+
+  // JUnit test for bulk delete Employees REST API
+  @DisplayName("JUnit test for bulk delete Employees REST API")
+  @Test
+  public void givenEmployeeIds_whenDeleteEmployees_thenReturn204() throws Exception {
+    // given - precondition or setup
+    List<Long> employeeIds = List.of(1L, 2L, 3L);
+    given(employeeService.deleteEmployeesByIds(employeeIds)).willReturn(3);
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(
+      delete("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employeeIds))
+    );
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isNoContent());
+    verify(employeeService).deleteEmployeesByIds(employeeIds);
+  }
+
   // JUnit test for delete Employee REST API
   @DisplayName("JUnit test for delete Employee REST API")
   @Test
@@ -0,0 +1,154 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.ReactiveEmployee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+  @Autowired
+  private WebTestClient webTestClient;
+  @MockBean
+  private ReactiveEmployeeService employeeService;
+
+  // JUnit test for Create Employee REST API
+  @DisplayName("JUnit test for Create Employee REST API (reactive)")
+  @Test
+  public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+    // given - precondition or setup
+    ReactiveEmployee employee = ReactiveEmployee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    given(employeeService.saveEmployee(any(ReactiveEmployee.class)))
+      .willAnswer((invocation) -> Mono.just(invocation.getArgument(0)));
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.post()
+      .uri("/api/employees")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(employee)
+      .exchange();
+
+    // then - verify the output
+    response
+      .expectStatus().isCreated()
+      .expectBody()
+      .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+      .jsonPath("$.email").isEqualTo(employee.getEmail());
+  }
+
+  // JUnit test for Create Employee REST API with duplicate email
+  @DisplayName("JUnit test for Create Employee REST API with duplicate email (reactive)")
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturn409() {
+    // given - precondition or setup
+    ReactiveEmployee employee = ReactiveEmployee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    given(employeeService.saveEmployee(any(ReactiveEmployee.class)))
+      .willReturn(Mono.error(new ResourceAlreadyExistsException("Employee already exists with given email:" + employee.getEmail())));
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.post()
+      .uri("/api/employees")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(employee)
+      .exchange();
+
+    // then - verify the output
+    response.expectStatus().isEqualTo(409);
+  }
+
+  // JUnit test for Get All Employees REST API
+  @DisplayName("JUnit test for Get All Employees REST API (reactive)")
+  @Test
+  public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() {
+    // given - precondition or setup
+    ReactiveEmployee employee = ReactiveEmployee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    ReactiveEmployee employee2 = ReactiveEmployee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+    given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, employee2));
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees").exchange();
+
+    // then - verify the output
+    response
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.length()").isEqualTo(2)
+      .jsonPath("$[1].email").isEqualTo(employee2.getEmail());
+  }
+
+  // JUnit test for Get Employee By Invalid Id REST API
+  @DisplayName("JUnit test for Get Employee By Invalid Id REST API (reactive)")
+  @Test
+  public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturn404() {
+    // given - precondition or setup
+    given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 1L).exchange();
+
+    // then - verify the output
+    response.expectStatus().isNotFound();
+  }
+
+  // JUnit test for update employee REST API - positive scenario
+  @DisplayName("JUnit test for update employee REST API (reactive)")
+  @Test
+  public void givenEmployeeId_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    // given - precondition or setup
+    ReactiveEmployee savedEmployee = ReactiveEmployee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@email.com").build();
+    ReactiveEmployee updatedEmployee = ReactiveEmployee.builder().firstName("Ram").lastName("Jadhav").email("ram@email.com").build();
+    given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(savedEmployee));
+    given(employeeService.updateEmployee(any(ReactiveEmployee.class)))
+      .willAnswer((invocation) -> Mono.just(invocation.getArgument(0)));
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.put()
+      .uri("/api/employees/{id}", 1L)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(updatedEmployee)
+      .exchange();
+
+    // then - verify the output
+    response
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.firstName").isEqualTo(updatedEmployee.getFirstName())
+      .jsonPath("$.email").isEqualTo(updatedEmployee.getEmail());
+  }
+
+  // JUnit test for delete Employee REST API
+  @DisplayName("JUnit test for delete Employee REST API (reactive)")
+  @Test
+  public void givenEmployeeId_whenDeleteEmployeeById_thenReturn200() {
+    // given - precondition or setup
+    given(employeeService.deleteEmployeeById(1L)).willReturn(Mono.empty());
+
+    // when - action or the behaviour
+    WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", 1L).exchange();
+
+    // then - verify the output
+    response.expectStatus().isOk();
+  }
+}
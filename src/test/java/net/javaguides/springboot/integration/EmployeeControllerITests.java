@@ -2,7 +2,9 @@ package net.javaguides.springboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.monitoring.QueryMonitor;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,13 +18,17 @@ import org.springframework.test.web.servlet.ResultActions;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// 1リクエストあたりのSQL実行回数の上限超過(N+1)があればテストを失敗させる
+// 実行時間はコンテナやCIの負荷で変わるため、遅いSQLでは失敗させない
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = {"employee.query-monitor.fail-on-violation=true", "employee.query-monitor.slow-query-threshold=1h"})
 @AutoConfigureMockMvc
 public class EmployeeControllerITests {
 
@@ -35,9 +41,18 @@ public class EmployeeControllerITests {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private QueryMonitor queryMonitor;
+
   @BeforeEach
   void setup() {
     employeeRepository.deleteAll();
+    queryMonitor.reset();
+  }
+
+  @AfterEach
+  void verifyQueries() {
+    assertThat(queryMonitor.report().requestViolations()).isEmpty();
   }
 
   // JUnit test for Create Employee REST API
@@ -235,4 +250,26 @@ public class EmployeeControllerITests {
       .andDo(print())
       .andExpect(status().isOk());
   }
+
+  // JUnit test for batch create Employees REST API (not counted as N+1)
+  @DisplayName("JUnit test for batch create Employees REST API")
+  @Test
+  public void givenMoreEmployeesThanStatementLimit_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+    // given - precondition or setup
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      employees.add(Employee.builder().firstName("Ramesh" + i).lastName("Fadatare").email("ramesh" + i + "@gmail.com").build());
+    }
+
+    // when - action or the behaviour
+    ResultActions response = mockMvc.perform(post("/api/employees/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(objectMapper.writeValueAsString(employees)));
+
+    // then - verify the output
+    response
+      .andDo(print())
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.size()", is(employees.size())));
+  }
 }
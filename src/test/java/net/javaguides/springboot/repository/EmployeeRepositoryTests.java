@@ -1,20 +1,33 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.config.EmployeeSyncConfig;
+import net.javaguides.springboot.config.SchemaMigrationConfig;
+import net.javaguides.springboot.exception.UnknownFieldException;
 import net.javaguides.springboot.model.Employee;
 // import org.assertj.core.api.Assertions;
 // importをstaticにしてassertThatをimportするとstaticメソッドとして呼び出し可能
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+// マイグレーションでスキーマを作成し、登録日時・更新日時を設定するためJPAの監査機能を有効にする
 @DataJpaTest
+@Import({SchemaMigrationConfig.class, EmployeeSyncConfig.class})
 public class EmployeeRepositoryTests {
 
   @Autowired
@@ -58,6 +71,25 @@ public class EmployeeRepositoryTests {
     assertThat(result.getId()).isGreaterThan(0);
   }
 
+  // JUnit test for save employee operation with duplicate email
+  @DisplayName("JUnit test for save employee operation with duplicate email")
+  @Test
+  public void givenExistingEmail_whenSaveAndFlush_thenThrowsDataIntegrityViolation() {
+    // given - precondition or setup
+    employeeRepository.saveAndFlush(employee);
+    Employee duplicate = Employee.builder()
+      .firstName("Ram")
+      .lastName("Jadhav")
+      .email(employee.getEmail())
+      .build();
+
+    // when - action or the behaviour
+    // then - verify the output
+    // emailのユニーク制約によりINSERTが失敗する
+    assertThatThrownBy(() -> employeeRepository.saveAndFlush(duplicate))
+      .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
   // JUnit test for get all employees operation
   // Employeeを2つ生成・保存して全件取得した場合のテスト
   @DisplayName("JUnit test for get all employees operation")
@@ -88,6 +120,71 @@ public class EmployeeRepositoryTests {
 
   }
 
+  // JUnit test for keyset pagination operation
+  @DisplayName("JUnit test for keyset pagination operation")
+  @Test
+  public void givenEmployeeList_whenFindByIdGreaterThan_thenReturnNextEmployees() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("John")
+      .lastName("Cana")
+      .email("cana@gmail.com")
+      .build();
+    Employee employee3 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+    employeeRepository.save(employee3);
+
+    // when - action or the behaviour
+    List<Employee> employeeList = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), Limit.of(1));
+
+    // then - verify the output
+    assertThat(employeeList).hasSize(1);
+    assertThat(employeeList.get(0).getId()).isEqualTo(employee2.getId());
+  }
+
+  // JUnit test for stream all employees operation
+  @DisplayName("JUnit test for stream all employees operation")
+  @Test
+  public void givenEmployeeList_whenStreamAll_thenReturnEmployeesOrderedById() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("John")
+      .lastName("Cana")
+      .email("cana@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+
+    // when - action or the behaviour
+    // @DataJpaTestはテストメソッドごとにトランザクションが張られるため、そのままストリームを利用できる
+    List<Long> ids;
+    try (Stream<Employee> employees = employeeRepository.streamAll()) {
+      ids = employees.map(Employee::getId).toList();
+    }
+
+    // then - verify the output
+    assertThat(ids).containsExactly(employee.getId(), employee2.getId());
+  }
+
+  // JUnit test for find existing emails operation
+  @DisplayName("JUnit test for find existing emails operation")
+  @Test
+  public void givenEmails_whenFindExistingEmails_thenReturnOnlySavedEmails() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+
+    // when - action or the behaviour
+    List<String> existingEmails = employeeRepository.findExistingEmails(List.of(employee.getEmail(), "tony@gmail.com"));
+
+    // then - verify the output
+    assertThat(existingEmails).containsExactly(employee.getEmail());
+  }
+
   // 前回作成したライブテンプレートを使用する
   // JUnit test for get employee by id operation
   @DisplayName("JUnit test for get employee by id operation")
@@ -160,6 +257,45 @@ public class EmployeeRepositoryTests {
 
   }
 
+  // JUnit test for partial update employee operation
+  @DisplayName("JUnit test for partial update employee operation")
+  @Test
+  public void givenEmployeeObject_whenUpdatePartially_thenUpdateOnlyGivenColumns() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+
+    // when - action or the behaviour
+    int updatedCount = employeeRepository.updatePartially(employee.getId(), null, "Ram", null, null, Instant.now());
+    int notFoundCount = employeeRepository.updatePartially(employee.getId() + 1, null, "Ram", null, null, Instant.now());
+
+    // then - verify the output
+    Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+    assertThat(updatedCount).isEqualTo(1);
+    assertThat(notFoundCount).isZero();
+    assertThat(updatedEmployee.getFirstName()).isEqualTo("Ram");
+    assertThat(updatedEmployee.getLastName()).isEqualTo("Fadatare");
+    assertThat(updatedEmployee.getEmail()).isEqualTo("ramesh@gmail.com");
+    assertThat(updatedEmployee.getVersion()).isEqualTo(1);
+  }
+
+  // JUnit test for partial update employee operation with version
+  @DisplayName("JUnit test for partial update employee operation with version")
+  @Test
+  public void givenStaleVersion_whenUpdatePartially_thenNotUpdated() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+    long version = employee.getVersion();
+
+    // when - action or the behaviour
+    int staleCount = employeeRepository.updatePartially(employee.getId(), version + 1, "Ram", null, null, Instant.now());
+    int updatedCount = employeeRepository.updatePartially(employee.getId(), version, "Ram", null, null, Instant.now());
+
+    // then - verify the output
+    assertThat(staleCount).isZero();
+    assertThat(updatedCount).isEqualTo(1);
+    assertThat(employeeRepository.findById(employee.getId()).get().getVersion()).isEqualTo(version + 1);
+  }
+
   // JUnit test for delete employee operation
   @DisplayName("JUnit test for delete employee operation")
   @Test
@@ -184,6 +320,124 @@ public class EmployeeRepositoryTests {
 
   }
 
+  // JUnit test for bulk delete employees operation
+  @DisplayName("JUnit test for bulk delete employees operation")
+  @Test
+  public void givenEmployeeList_whenDeleteAllByIds_thenDeleteOnlyGivenEmployees() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+
+    // when - action or the behaviour
+    int deletedCount = employeeRepository.deleteAllByIds(List.of(employee.getId(), employee2.getId() + 1));
+
+    // then - verify the output
+    assertThat(deletedCount).isEqualTo(1);
+    assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("tony@gmail.com");
+  }
+
+  // JUnit test for lock existing employee ids operation
+  @DisplayName("JUnit test for lock existing employee ids operation")
+  @Test
+  public void givenExistingAndSoftDeletedEmployees_whenLockExistingIds_thenReturnOnlyExistingIds() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+    employeeRepository.softDeleteAllByIds(List.of(employee2.getId()), Instant.now());
+
+    // when - action or the behaviour
+    List<Long> existingIds = employeeRepository.lockExistingIds(
+      List.of(employee.getId(), employee2.getId(), employee2.getId() + 1));
+
+    // then - verify the output
+    assertThat(existingIds).containsExactly(employee.getId());
+  }
+
+  // JUnit test for soft delete employees operation
+  @DisplayName("JUnit test for soft delete employees operation")
+  @Test
+  public void givenEmployeeObject_whenSoftDeleteAllByIds_thenExcludedFromQueries() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+
+    // when - action or the behaviour
+    int deletedCount = employeeRepository.softDeleteAllByIds(List.of(employee.getId()), Instant.now());
+
+    // then - verify the output
+    assertThat(deletedCount).isEqualTo(1);
+    assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    assertThat(employeeRepository.findByEmail(employee.getEmail())).isEmpty();
+    assertThat(employeeRepository.findByNativeSQL("Ramesh", "Fadatare")).isEmpty();
+    assertThat(employeeRepository.updatePartially(employee.getId(), null, "Ram", null, null, Instant.now())).isZero();
+  }
+
+  // JUnit test for find employees modified after a sync position operation
+  @DisplayName("JUnit test for find employees modified after a sync position operation")
+  @Test
+  public void givenEmployeesWithSameUpdatedAt_whenFindModifiedAfter_thenReturnEmployeesAfterPosition() {
+    // given - precondition or setup
+    // ソフトデリートの1チャンクのように、同じ更新日時の行が並ぶ
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    Instant since = Instant.now().minusSeconds(60);
+    employeeRepository.saveAndFlush(employee);
+    employeeRepository.saveAndFlush(employee2);
+    // 差分同期の位置の日時はDBから読んだ値（マイクロ秒精度）になる
+    Instant updatedAt = since.plusSeconds(10).truncatedTo(ChronoUnit.MICROS);
+    employeeRepository.updatePartially(employee.getId(), null, null, null, null, updatedAt);
+    employeeRepository.updatePartially(employee2.getId(), null, null, null, null, updatedAt);
+
+    // when - action or the behaviour
+    List<Employee> all = employeeRepository.findModifiedAfter(since, 0, since.plusSeconds(120), Limit.of(10));
+    List<Employee> afterFirst = employeeRepository.findModifiedAfter(updatedAt, employee.getId(),
+      since.plusSeconds(120), Limit.of(10));
+    List<Employee> beforeSince = employeeRepository.findModifiedAfter(since.minusSeconds(60), 0, since, Limit.of(10));
+
+    // then - verify the output
+    assertThat(employee.getCreatedAt()).isNotNull();
+    assertThat(all).extracting(Employee::getEmail).containsExactly("ramesh@gmail.com", "tony@gmail.com");
+    assertThat(afterFirst).extracting(Employee::getEmail).containsExactly("tony@gmail.com");
+    assertThat(beforeSince).isEmpty();
+  }
+
+  // JUnit test for purge soft deleted employees operation
+  @DisplayName("JUnit test for purge soft deleted employees operation")
+  @Test
+  public void givenSoftDeletedEmployees_whenPurgeDeleted_thenDeleteAtMostLimitRows() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+    employeeRepository.softDeleteAllByIds(List.of(employee.getId(), employee2.getId()), Instant.now());
+
+    // when - action or the behaviour
+    int firstCount = employeeRepository.purgeDeleted(1);
+    int secondCount = employeeRepository.purgeDeleted(1);
+    int thirdCount = employeeRepository.purgeDeleted(1);
+
+    // then - verify the output
+    assertThat(firstCount).isEqualTo(1);
+    assertThat(secondCount).isEqualTo(1);
+    assertThat(thirdCount).isZero();
+  }
+
   // JUnit test for custom query using JPQL with index
   @DisplayName("JUnit test for custom query using JPQL with index")
   @Test
@@ -280,4 +534,61 @@ public class EmployeeRepositoryTests {
     assertThat(result.getFirstName()).isEqualTo(firstName);
     assertThat(result.getLastName()).isEqualTo(lastName);
   }
+
+  // JUnit test for derived query by last name and first name
+  @DisplayName("JUnit test for derived query by last name and first name")
+  @Test
+  public void givenFirstNameAndLastName_whenFindByLastNameAndFirstName_thenReturnEmployeesList() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Fadatare")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+
+    // when - action or the behaviour
+    List<Employee> employeeList = employeeRepository.findByLastNameAndFirstName("Fadatare", "Ramesh");
+
+    // then - verify the output
+    assertThat(employeeList).hasSize(1);
+    assertThat(employeeList.get(0).getEmail()).isEqualTo(employee.getEmail());
+  }
+
+  // JUnit test for find all fields operation
+  @DisplayName("JUnit test for find all fields operation")
+  @Test
+  public void givenFieldNames_whenFindAllFields_thenReturnOnlyRequestedFields() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+
+    // when - action or the behaviour
+    List<Map<String, Object>> rows = employeeRepository.findAllFields(List.of("id", "email"));
+
+    // then - verify the output
+    assertThat(rows).hasSize(2);
+    assertThat(rows.get(0)).containsOnlyKeys("id", "email");
+    assertThat(rows.get(0)).containsEntry("id", employee.getId()).containsEntry("email", employee.getEmail());
+    assertThat(rows.get(1)).containsEntry("id", employee2.getId()).containsEntry("email", employee2.getEmail());
+  }
+
+  // JUnit test for find all fields operation with unknown field
+  @DisplayName("JUnit test for find all fields operation with unknown field")
+  @Test
+  public void givenUnknownFieldName_whenFindAllFields_thenThrowsException() {
+    // given - precondition or setup
+    employeeRepository.save(employee);
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> employeeRepository.findAllFields(List.of("id", "deleted")))
+      .isInstanceOf(UnknownFieldException.class);
+  }
 }
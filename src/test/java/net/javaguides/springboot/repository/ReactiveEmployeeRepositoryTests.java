@@ -0,0 +1,129 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.ReactiveEmployee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// reactiveプロファイルのR2DBCリポジトリのテスト（インメモリH2を使用）
+// JPAのddl-autoは使用されないため、テーブルはテストの前に作成する
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@Import(ReactiveEmployeeIdGenerator.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeRepositoryTests {
+
+  @Autowired
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  private ReactiveEmployee employee;
+
+  @BeforeEach
+  public void setup() {
+    databaseClient.sql("drop table if exists employees").then()
+      .then(databaseClient.sql("drop table if exists employees_seq").then())
+      .then(databaseClient.sql("create table employees (id bigint primary key, first_name varchar(255) not null,"
+        + " last_name varchar(255) not null, email varchar(255) not null, version bigint not null, deleted boolean not null,"
+        + " created_at timestamp(6), updated_at timestamp(6), constraint uk_employees_email unique (email))").then())
+      .then(databaseClient.sql("create table employees_seq (next_val bigint)").then())
+      .then(databaseClient.sql("insert into employees_seq values (1)").then())
+      .block();
+
+    employee = ReactiveEmployee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+  }
+
+  // JUnit test for save employee operation
+  @DisplayName("JUnit test for save employee operation")
+  @Test
+  public void givenEmployeeObject_whenSave_thenReturnSavedEmployeeWithGeneratedId() {
+    // given - precondition or setup
+    ReactiveEmployee employee2 = ReactiveEmployee.builder()
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+
+    // when - action or the behaviour
+    ReactiveEmployee result = employeeRepository.save(employee).block();
+    ReactiveEmployee result2 = employeeRepository.save(employee2).block();
+
+    // then - verify the output
+    // employees_seq から1件ずつ採番される
+    assertThat(result.getId()).isEqualTo(1L);
+    assertThat(result2.getId()).isEqualTo(2L);
+  }
+
+  // JUnit test for get employee by email operation
+  @DisplayName("JUnit test for get employee by email operation")
+  @Test
+  public void givenEmployeeEmail_whenFindByEmail_thenReturnEmployeeObject() {
+    // given - precondition or setup
+    employeeRepository.save(employee).block();
+
+    // when - action or the behaviour
+    // then - verify the output
+    StepVerifier.create(employeeRepository.findByEmailAndDeletedFalse(employee.getEmail()))
+      .assertNext(result -> assertThat(result.getFirstName()).isEqualTo(employee.getFirstName()))
+      .verifyComplete();
+  }
+
+  // JUnit test for custom query using native SQL with named params
+  @DisplayName("JUnit test for custom query using native SQL with named params")
+  @Test
+  public void givenFirstNameAndLastName_whenFindByNativeSQLNamed_thenReturnEmployeeObject() {
+    // given - precondition or setup
+    employeeRepository.save(employee).block();
+
+    // when - action or the behaviour
+    // then - verify the output
+    StepVerifier.create(employeeRepository.findByNativeSQLNamed("Ramesh", "Fadatare"))
+      .assertNext(result -> assertThat(result.getEmail()).isEqualTo(employee.getEmail()))
+      .verifyComplete();
+  }
+
+  // JUnit test for derived query by last name and first name
+  @DisplayName("JUnit test for derived query by last name and first name")
+  @Test
+  public void givenFirstNameAndLastName_whenFindByLastNameAndFirstName_thenReturnEmployeeObject() {
+    // given - precondition or setup
+    employeeRepository.save(employee).block();
+
+    // when - action or the behaviour
+    // then - verify the output
+    StepVerifier.create(employeeRepository.findByLastNameAndFirstNameAndDeletedFalse("Fadatare", "Ramesh"))
+      .assertNext(result -> assertThat(result.getEmail()).isEqualTo(employee.getEmail()))
+      .verifyComplete();
+  }
+
+  // JUnit test for queries excluding soft-deleted employees
+  @DisplayName("JUnit test for queries excluding soft-deleted employees")
+  @Test
+  public void givenSoftDeletedEmployee_whenFind_thenReturnNothing() {
+    // given - precondition or setup
+    // JPA側（EmployeeServiceImpl）でソフトデリートされた行
+    employee.setDeleted(true);
+    ReactiveEmployee deletedEmployee = employeeRepository.save(employee).block();
+
+    // when - action or the behaviour
+    // then - verify the output
+    StepVerifier.create(employeeRepository.findByDeletedFalse()).verifyComplete();
+    StepVerifier.create(employeeRepository.findByIdAndDeletedFalse(deletedEmployee.getId())).verifyComplete();
+    StepVerifier.create(employeeRepository.findByEmailAndDeletedFalse(employee.getEmail())).verifyComplete();
+    StepVerifier.create(employeeRepository.findByLastNameAndFirstNameAndDeletedFalse("Fadatare", "Ramesh")).verifyComplete();
+    StepVerifier.create(employeeRepository.findByNativeSQLNamed("Ramesh", "Fadatare")).verifyComplete();
+  }
+}
@@ -0,0 +1,216 @@
+package net.javaguides.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.EmployeeChangePage;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.model.EmployeeSearchHit;
+import net.javaguides.springboot.service.impl.EmployeeSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchServiceTests {
+
+  @Mock
+  private EmployeeService employeeService;
+  @Spy
+  private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+  @InjectMocks
+  private EmployeeSearchServiceImpl employeeSearchService;
+  private Employee employee;
+  private Employee employee2;
+
+  @BeforeEach
+  public void setup() {
+    employee = Employee.builder()
+      .id(1L)
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    employee2 = Employee.builder()
+      .id(2L)
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony.stark@avengers.com")
+      .build();
+    willAnswer(invocation -> {
+      Consumer<Employee> consumer = invocation.getArgument(0);
+      consumer.accept(employee);
+      consumer.accept(employee2);
+      return null;
+    }).given(employeeService).exportEmployees(any());
+    given(employeeService.getChanges(anyLong(), anyInt())).willAnswer(invocation ->
+      new EmployeeChangePage(List.of(), invocation.getArgument(0)));
+    employeeSearchService.rebuild();
+  }
+
+  // JUnit test for search method
+  @DisplayName("JUnit test for search method (prefix of first name, last name or email)")
+  @Test
+  public void givenPrefix_whenSearch_thenReturnMatchingEmployees() {
+    // given - precondition or setup
+
+    // when - action or the behaviour
+    List<EmployeeSearchHit> byFirstName = employeeSearchService.search("RAM", 20);
+    List<EmployeeSearchHit> byLastName = employeeSearchService.search("sta", 20);
+    List<EmployeeSearchHit> byEmailPart = employeeSearchService.search("aveng", 20);
+    List<EmployeeSearchHit> byBothNames = employeeSearchService.search("tony st", 20);
+
+    // then - verify the output
+    assertThat(byFirstName).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+    assertThat(byLastName).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+    assertThat(byEmailPart).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+    assertThat(byBothNames).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+    assertThat(employeeSearchService.search("tony fad", 20)).isEmpty();
+  }
+
+  // JUnit test for search method with limit
+  @DisplayName("JUnit test for search method with limit")
+  @Test
+  public void givenLimit_whenSearch_thenReturnAtMostLimitHits() {
+    // given - precondition or setup
+    employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.saved(List.of(
+      Employee.builder().id(3L).firstName("Ramona").lastName("Flowers").email("ramona@gmail.com").build())));
+
+    // when - action or the behaviour
+    List<EmployeeSearchHit> hits = employeeSearchService.search("ram", 1);
+
+    // then - verify the output
+    assertThat(hits).hasSize(1);
+    assertThat(employeeSearchService.search("ram", 20)).hasSize(2);
+  }
+
+  // JUnit test for onEmployeeChanged method
+  @DisplayName("JUnit test for onEmployeeChanged method (update, patch and delete)")
+  @Test
+  public void givenChangedEvents_whenOnEmployeeChanged_thenIndexFollowsChanges() {
+    // given - precondition or setup
+    Employee renamed = employee.toBuilder().firstName("Ram").lastName("Kumar").build();
+    Employee patched = Employee.builder().id(2L).email("ironman@stark.com").build();
+
+    // when - action or the behaviour
+    employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.saved(List.of(renamed)));
+    employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.patched(patched));
+
+    // then - verify the output
+    assertThat(employeeSearchService.search("fad", 20)).isEmpty();
+    assertThat(employeeSearchService.search("kum", 20)).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+    assertThat(employeeSearchService.search("aveng", 20)).isEmpty();
+    List<EmployeeSearchHit> hits = employeeSearchService.search("iron", 20);
+    assertThat(hits).extracting(EmployeeSearchHit::getFirstName).containsExactly("Tony");
+
+    employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(1L, 2L)));
+    assertThat(employeeSearchService.search("tony", 20)).isEmpty();
+    assertThat(employeeSearchService.search("ram", 20)).isEmpty();
+  }
+
+  // JUnit test for search method with a common and a rare prefix
+  @DisplayName("JUnit test for search method with a common and a rare prefix")
+  @Test
+  public void givenCommonLongPrefixAndRarePrefix_whenSearch_thenReturnMatchingEmployees() {
+    // given - precondition or setup
+    // 長いが一致の多い接頭辞（smith）と、短いが一致の少ない接頭辞（zo）
+    List<Employee> smiths = new ArrayList<>();
+    for (long id = 10; id < 60; id++) {
+      smiths.add(Employee.builder().id(id).firstName("John" + id).lastName("Smith").email("john" + id + "@gmail.com").build());
+    }
+    smiths.add(Employee.builder().id(60L).firstName("Zoe").lastName("Smith").email("zoe@gmail.com").build());
+    employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.saved(smiths));
+
+    // when - action or the behaviour
+    List<EmployeeSearchHit> hits = employeeSearchService.search("smith zo", 20);
+
+    // then - verify the output
+    assertThat(hits).extracting(EmployeeSearchHit::getId).containsExactly(60L);
+    assertThat(employeeSearchService.search("smith zz", 20)).isEmpty();
+    assertThat(employeeSearchService.search("smith", 100)).hasSize(51);
+  }
+
+  // JUnit test for rebuild method with changes during the rebuild
+  @DisplayName("JUnit test for rebuild method with changes committed while reading the snapshot")
+  @Test
+  public void givenDeleteDuringRebuild_whenRebuild_thenDeletedEmployeeIsNotResurrected() {
+    // given - precondition or setup
+    // スナップショットには employee が含まれるが、読み込み中に削除がコミットされる
+    willAnswer(invocation -> {
+      Consumer<Employee> consumer = invocation.getArgument(0);
+      consumer.accept(employee);
+      employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(1L)));
+      consumer.accept(employee2);
+      return null;
+    }).given(employeeService).exportEmployees(any());
+
+    // when - action or the behaviour
+    employeeSearchService.rebuild();
+
+    // then - verify the output
+    assertThat(employeeSearchService.search("ram", 20)).isEmpty();
+    assertThat(employeeSearchService.search("tony", 20)).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+  }
+
+  // JUnit test for pollChanges method
+  @DisplayName("JUnit test for pollChanges method (changes made on other instances)")
+  @Test
+  public void givenChangesInFeed_whenPollChanges_thenIndexFollowsFeed() {
+    // given - precondition or setup
+    Instant now = Instant.now();
+    given(employeeService.getChanges(0L, 1000)).willReturn(new EmployeeChangePage(List.of(
+      new EmployeeChange(1L, 3L, EmployeeOutboxEvent.Type.CREATED, now,
+        "{\"id\":3,\"firstName\":\"Ramona\",\"lastName\":\"Flowers\",\"email\":\"ramona@gmail.com\",\"version\":0}"),
+      new EmployeeChange(2L, 2L, EmployeeOutboxEvent.Type.PATCHED, now, "{\"id\":2,\"lastName\":\"Rogers\"}"),
+      new EmployeeChange(3L, 1L, EmployeeOutboxEvent.Type.DELETED, now, null)), 3L));
+
+    // when - action or the behaviour
+    employeeSearchService.pollChanges();
+
+    // then - verify the output
+    assertThat(employeeSearchService.search("ram", 20)).extracting(EmployeeSearchHit::getId).containsExactly(3L);
+    assertThat(employeeSearchService.search("rog", 20)).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+    assertThat(employeeSearchService.search("fad", 20)).isEmpty();
+    // 次回は反映済みの位置から取得する
+    employeeSearchService.pollChanges();
+    verify(employeeService).getChanges(3L, 1000);
+  }
+
+  // JUnit test for pollChanges method behind the change feed retention
+  @DisplayName("JUnit test for pollChanges method (rebuild when the feed position was purged)")
+  @Test
+  public void givenPurgedFeedPosition_whenPollChanges_thenRebuildFromSnapshot() {
+    // given - precondition or setup
+    given(employeeService.getChanges(0L, 1000)).willThrow(new SyncWindowExpiredException("purged"));
+    given(employeeService.getLatestChangeSeq()).willReturn(50L);
+
+    // when - action or the behaviour
+    employeeSearchService.pollChanges();
+
+    // then - verify the output
+    verify(employeeService, times(2)).exportEmployees(any());
+    verify(employeeService).getChanges(50L, 1000);
+    assertThat(employeeSearchService.search("tony", 20)).extracting(EmployeeSearchHit::getId).containsExactly(2L);
+  }
+}
@@ -1,7 +1,24 @@
 package net.javaguides.springboot.service;
 
-import net.javaguides.springboot.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.EmployeeDeleteProperties;
+import net.javaguides.springboot.config.EmployeeOutboxProperties;
+import net.javaguides.springboot.config.EmployeeSingleFlightProperties;
+import net.javaguides.springboot.config.EmployeeSyncProperties;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ResourceVersionMismatchException;
+import net.javaguides.springboot.exception.SyncWindowExpiredException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeOutboxEvent;
+import net.javaguides.springboot.model.EmployeePage;
+import net.javaguides.springboot.model.EmployeeSyncCursor;
+import net.javaguides.springboot.model.EmployeeSyncPage;
+import net.javaguides.springboot.model.EmployeeTombstone;
+import net.javaguides.springboot.outbox.EmployeeOutbox;
+import net.javaguides.springboot.repository.EmployeeOutboxRepository;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,17 +26,37 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +64,26 @@ public class EmployeeServiceTests {
 
   @Mock
   private EmployeeRepository employeeRepository;
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private EmployeeOutbox outbox;
+  @Mock
+  private EmployeeOutboxRepository outboxRepository;
+  @Spy
+  private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+  @Spy
+  private EmployeeDeleteProperties deleteProperties = new EmployeeDeleteProperties();
+  @Spy
+  private EmployeeSingleFlightProperties singleFlightProperties = new EmployeeSingleFlightProperties();
+  @Spy
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  @Spy
+  private EmployeeSyncProperties syncProperties = new EmployeeSyncProperties();
+  @Spy
+  private EmployeeOutboxProperties outboxProperties = new EmployeeOutboxProperties();
   @InjectMocks
   private EmployeeServiceImpl employeeService;
   private Employee employee;
@@ -48,9 +105,8 @@ public class EmployeeServiceTests {
   @Test
   public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
     // given - precondition or setup
-    // EmployeeServiceImplで使用されているemployeeRepositoryの2つのメソッドをmock化して、実際のemployeeRepositoryメソッドを実行せずにmockで定義した結果を返却する
-    given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-    given(employeeRepository.save(employee)).willReturn(employee);
+    // EmployeeServiceImplで使用されているemployeeRepositoryのメソッドをmock化して、実際のemployeeRepositoryメソッドを実行せずにmockで定義した結果を返却する
+    given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
     System.out.println(employeeRepository);
     System.out.println(employeeService);
@@ -70,18 +126,62 @@ public class EmployeeServiceTests {
   @Test
   public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
     // given - precondition or setup
-    given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+    // ユニーク制約違反はDataIntegrityViolationExceptionに変換されて返却される
+    ConstraintViolationException violation = new ConstraintViolationException(
+      "Duplicate entry", new SQLException("Duplicate entry"), "employees." + Employee.EMAIL_UNIQUE_CONSTRAINT);
+    given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("Duplicate entry", violation));
 
     System.out.println(employeeRepository);
     System.out.println(employeeService);
 
     // when - action or the behaviour
-    org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+    org.junit.jupiter.api.Assertions.assertThrows(ResourceAlreadyExistsException.class, () -> {
       employeeService.saveEmployee(employee);
     });
 
     // then - verify the output
-    verify(employeeRepository, never()).save(ArgumentMatchers.any(Employee.class));
+    // 事前のfindByEmailによる問い合わせは行わない
+    verify(employeeRepository, never()).findByEmail(ArgumentMatchers.anyString());
+  }
+
+  // JUnit test for saveEmployees method
+  @DisplayName("JUnit test for saveEmployees method")
+  @Test
+  public void givenEmployeesList_whenSaveEmployees_thenReturnSavedEmployeesList() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .id(2L)
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    List<Employee> employees = List.of(employee, employee2);
+    given(employeeRepository.findExistingEmails(ArgumentMatchers.anyCollection())).willReturn(Collections.emptyList());
+    given(employeeRepository.saveAll(employees)).willReturn(employees);
+
+    // when - action or the behaviour
+    List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+
+    // then - verify the output
+    assertThat(savedEmployees).containsExactly(employee, employee2);
+    verify(employeeRepository, times(1)).findExistingEmails(ArgumentMatchers.anyCollection());
+    verify(entityManager, times(1)).flush();
+  }
+
+  // JUnit test for saveEmployees method which throws exception
+  @DisplayName("JUnit test for saveEmployees method which throws exception")
+  @Test
+  public void givenExistingEmail_whenSaveEmployees_thenThrowsException() {
+    // given - precondition or setup
+    given(employeeRepository.findExistingEmails(ArgumentMatchers.anyCollection())).willReturn(List.of(employee.getEmail()));
+
+    // when - action or the behaviour
+    org.junit.jupiter.api.Assertions.assertThrows(ResourceAlreadyExistsException.class, () -> {
+      employeeService.saveEmployees(List.of(employee));
+    });
+
+    // then - verify the output
+    verify(employeeRepository, never()).saveAll(ArgumentMatchers.anyList());
   }
 
   // JUnit test for getAllEmployees method
@@ -106,6 +206,24 @@ public class EmployeeServiceTests {
 
   }
 
+  // JUnit test for getAllEmployeeFields method
+  @DisplayName("JUnit test for getAllEmployeeFields method")
+  @Test
+  public void givenFieldNames_whenGetAllEmployeeFields_thenReturnProjectedRows() {
+    // given - precondition or setup
+    List<String> fields = List.of("id", "email");
+    given(employeeRepository.findAllFields(fields))
+      .willReturn(List.of(Map.of("id", 1L, "email", "ramesh@gmail.com")));
+
+    // when - action or the behaviour
+    List<Map<String, Object>> rows = employeeService.getAllEmployeeFields(fields);
+
+    // then - verify the output
+    assertThat(rows).hasSize(1);
+    assertThat(rows.get(0)).containsEntry("email", "ramesh@gmail.com");
+    verify(employeeRepository, never()).findAll();
+  }
+
   // JUnit test for getAllEmployees method
   @DisplayName("JUnit test for getAllEmployees method (negative scenario)")
   @Test
@@ -128,6 +246,185 @@ public class EmployeeServiceTests {
 
   }
 
+  // JUnit test for getEmployees method (keyset pagination)
+  @DisplayName("JUnit test for getEmployees method with next cursor")
+  @Test
+  public void givenMoreEmployeesThanLimit_whenGetEmployees_thenReturnPageWithNextCursor() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .id(2L)
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    // limit + 1 件取得し、余った1件で次ページの有無を判定する
+    given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).willReturn(List.of(employee, employee2));
+
+    // when - action or the behaviour
+    EmployeePage page = employeeService.getEmployees(0L, 1);
+
+    // then - verify the output
+    assertThat(page.getEmployees()).containsExactly(employee);
+    assertThat(page.getNextCursor()).isEqualTo(1L);
+  }
+
+  // JUnit test for getEmployees method (last page)
+  @DisplayName("JUnit test for getEmployees method on last page")
+  @Test
+  public void givenFewerEmployeesThanLimit_whenGetEmployees_thenReturnPageWithoutNextCursor() {
+    // given - precondition or setup
+    given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11))).willReturn(List.of(employee));
+
+    // when - action or the behaviour
+    EmployeePage page = employeeService.getEmployees(0L, 10);
+
+    // then - verify the output
+    assertThat(page.getEmployees()).containsExactly(employee);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  // JUnit test for getEmployeesModifiedSince method
+  @DisplayName("JUnit test for getEmployeesModifiedSince method with more changes than limit")
+  @Test
+  public void givenMoreChangesThanLimit_whenGetEmployeesModifiedSince_thenReturnFirstChangesAndCursor() {
+    // given - precondition or setup
+    Instant since = Instant.now().minus(Duration.ofHours(1));
+    employee.setUpdatedAt(since.plusSeconds(1));
+    Employee employee2 = employee.toBuilder().id(2L).updatedAt(since.plusSeconds(3)).build();
+    EmployeeOutboxEvent deleted1 = EmployeeOutboxEvent.builder()
+      .id(100L).employeeId(10L).type(EmployeeOutboxEvent.Type.DELETED).createdAt(since.plusSeconds(2)).build();
+    EmployeeOutboxEvent deleted2 = EmployeeOutboxEvent.builder()
+      .id(101L).employeeId(11L).type(EmployeeOutboxEvent.Type.DELETED).createdAt(since.plusSeconds(4)).build();
+    given(employeeRepository.findModifiedAfter(eq(since), eq(0L), any(Instant.class), eq(Limit.of(2))))
+      .willReturn(List.of(employee, employee2));
+    given(outboxRepository.findByTypeCreatedAfter(
+      eq(EmployeeOutboxEvent.Type.DELETED), eq(since), eq(0L), any(Instant.class), eq(Limit.of(2))))
+      .willReturn(List.of(deleted1, deleted2));
+
+    // when - action or the behaviour
+    EmployeeSyncPage page = employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(since), 2);
+
+    // then - verify the output
+    // 更新(1秒後)・削除(2秒後)・更新(3秒後)・削除(4秒後)の順に並べ、先頭の2件を返す
+    assertThat(page.getEmployees()).containsExactly(employee);
+    assertThat(page.getDeleted()).containsExactly(new EmployeeTombstone(10L, since.plusSeconds(2)));
+    assertThat(page.getCursor())
+      .isEqualTo(new EmployeeSyncCursor(since.plusSeconds(2), EmployeeSyncCursor.Kind.DELETED, 100L));
+    assertThat(page.getWatermark()).isEqualTo(since.plusSeconds(2));
+  }
+
+  // JUnit test for getEmployeesModifiedSince method
+  @DisplayName("JUnit test for getEmployeesModifiedSince method with more deletes at one timestamp than limit")
+  @Test
+  public void givenMoreDeletesAtSameTimestampThanLimit_whenGetEmployeesModifiedSince_thenCursorMovesForward() {
+    // given - precondition or setup
+    // 一括削除の1チャンクの削除の記録はすべて同じ日時になる
+    Instant deletedAt = Instant.now().minus(Duration.ofHours(1));
+    // 前のページで同じ日時の削除のうち id=100 までを返している
+    EmployeeOutboxEvent deleted2 = EmployeeOutboxEvent.builder()
+      .id(101L).employeeId(11L).type(EmployeeOutboxEvent.Type.DELETED).createdAt(deletedAt).build();
+    EmployeeSyncCursor cursor = new EmployeeSyncCursor(deletedAt, EmployeeSyncCursor.Kind.DELETED, 100L);
+    // 位置が削除の場合、同じ日時の更新は返却済みのため対象外にし、削除は位置のidより後から取得する
+    given(employeeRepository.findModifiedAfter(eq(deletedAt), eq(Long.MAX_VALUE), any(Instant.class), eq(Limit.of(1))))
+      .willReturn(List.of());
+    given(outboxRepository.findByTypeCreatedAfter(
+      eq(EmployeeOutboxEvent.Type.DELETED), eq(deletedAt), eq(100L), any(Instant.class), eq(Limit.of(1))))
+      .willReturn(List.of(deleted2));
+
+    // when - action or the behaviour
+    EmployeeSyncPage page = employeeService.getEmployeesModifiedSince(cursor, 1);
+
+    // then - verify the output
+    assertThat(page.getDeleted()).containsExactly(new EmployeeTombstone(11L, deletedAt));
+    assertThat(page.getCursor()).isEqualTo(new EmployeeSyncCursor(deletedAt, EmployeeSyncCursor.Kind.DELETED, 101L));
+    assertThat(page.getCursor()).isGreaterThan(cursor);
+  }
+
+  // JUnit test for getEmployeesModifiedSince method
+  @DisplayName("JUnit test for getEmployeesModifiedSince method with all changes returned")
+  @Test
+  public void givenFewerChangesThanLimit_whenGetEmployeesModifiedSince_thenCursorMovesToUntil() {
+    // given - precondition or setup
+    Instant since = Instant.now().minus(Duration.ofHours(1));
+    employee.setUpdatedAt(since.plusSeconds(1));
+    given(employeeRepository.findModifiedAfter(eq(since), eq(0L), any(Instant.class), eq(Limit.of(10))))
+      .willReturn(List.of(employee));
+    given(outboxRepository.findByTypeCreatedAfter(
+      eq(EmployeeOutboxEvent.Type.DELETED), eq(since), eq(0L), any(Instant.class), eq(Limit.of(10))))
+      .willReturn(List.of());
+
+    // when - action or the behaviour
+    EmployeeSyncPage page = employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(since), 10);
+
+    // then - verify the output
+    // settle-window前（until）までの変更を返しきったため、次回は until から取得する
+    assertThat(page.getEmployees()).containsExactly(employee);
+    assertThat(page.getCursor().kind()).isEqualTo(EmployeeSyncCursor.Kind.EMPLOYEE);
+    assertThat(page.getCursor().id()).isZero();
+    assertThat(page.getWatermark()).isAfter(since.plusSeconds(1)).isEqualTo(page.getCursor().timestamp());
+  }
+
+  // JUnit test for getChanges method
+  @DisplayName("JUnit test for getChanges method older than the change feed retention")
+  @Test
+  public void givenSinceBeforeOldestRetainedChange_whenGetChanges_thenThrowsException() {
+    // given - precondition or setup
+    // 連番1〜49は保持期間を過ぎて削除され、50以降が残っている
+    given(outboxRepository.findMinPublishedSeq()).willReturn(50L);
+    given(outboxRepository.findByPublishedSeqGreaterThanOrderByPublishedSeqAsc(eq(49L), any(Limit.class)))
+      .willReturn(List.of());
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> employeeService.getChanges(48L, 10)).isInstanceOf(SyncWindowExpiredException.class);
+    assertThat(employeeService.getChanges(49L, 10).getChanges()).isEmpty();
+  }
+
+  // JUnit test for getEmployeesModifiedSince method
+  @DisplayName("JUnit test for getEmployeesModifiedSince method older than tombstone retention")
+  @Test
+  public void givenSinceOlderThanRetention_whenGetEmployeesModifiedSince_thenThrowsException() {
+    // given - precondition or setup
+    Instant since = Instant.now().minus(outboxProperties.getRetention()).minusSeconds(60);
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> employeeService.getEmployeesModifiedSince(EmployeeSyncCursor.since(since), 10))
+      .isInstanceOf(SyncWindowExpiredException.class);
+    verifyNoInteractions(employeeRepository);
+  }
+
+  // JUnit test for exportEmployees method
+  @DisplayName("JUnit test for exportEmployees method")
+  @Test
+  public void givenEmployeesStream_whenExportEmployees_thenConsumeAndDetachEachEmployee() {
+    // given - precondition or setup
+    Employee employee2 = Employee.builder()
+      .id(2L)
+      .firstName("Tony")
+      .lastName("Stark")
+      .email("tony@gmail.com")
+      .build();
+    Session session = mock(Session.class);
+    given(entityManager.unwrap(Session.class)).willReturn(session);
+    given(session.getCacheMode()).willReturn(CacheMode.NORMAL);
+    given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee2));
+    List<Employee> exported = new ArrayList<>();
+
+    // when - action or the behaviour
+    employeeService.exportEmployees(exported::add);
+
+    // then - verify the output
+    assertThat(exported).containsExactly(employee, employee2);
+    verify(entityManager, times(1)).detach(employee);
+    verify(entityManager, times(1)).detach(employee2);
+    // 全件の読み込み中は第2レベルキャッシュを使わず、終了後に元に戻す
+    InOrder inOrder = inOrder(session, employeeRepository);
+    inOrder.verify(session).setCacheMode(CacheMode.IGNORE);
+    inOrder.verify(employeeRepository).streamAll();
+    inOrder.verify(session).setCacheMode(CacheMode.NORMAL);
+  }
+
   // JUnit test for getEmployeeById method
   @DisplayName("JUnit test for getEmployeeById method")
   @Test
@@ -147,13 +444,133 @@ public class EmployeeServiceTests {
 
   }
 
+  // JUnit test for getEmployeeById method with concurrent callers
+  @DisplayName("JUnit test for getEmployeeById method (concurrent lookups share one query)")
+  @Test
+  public void givenConcurrentLookups_whenGetEmployeeById_thenQueryOnceAndReturnCopies() throws Exception {
+    // given - precondition or setup
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+      loading.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return Optional.of(employee);
+    });
+    int followers = 3;
+    ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+
+    try {
+      // when - action or the behaviour
+      Future<Optional<Employee>> leader = executor.submit(() -> employeeService.getEmployeeById(1L));
+      assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+      List<Future<Optional<Employee>>> waiters = new ArrayList<>();
+      for (int i = 0; i < followers; i++) {
+        waiters.add(executor.submit(() -> employeeService.getEmployeeById(1L)));
+      }
+      // 全員がleaderの結果を待ち始めてから読み込みを完了させる
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (meterRegistry.get("employee.single_flight.waiting").tag("flight", "employee.id").gauge().value() < followers
+        && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      // then - verify the output
+      assertThat(leader.get(5, TimeUnit.SECONDS)).containsSame(employee);
+      for (Future<Optional<Employee>> waiter : waiters) {
+        Employee result = waiter.get(5, TimeUnit.SECONDS).get();
+        assertThat(result).isNotSameAs(employee);
+        assertThat(result.getEmail()).isEqualTo(employee.getEmail());
+      }
+      verify(employeeRepository, times(1)).findById(1L);
+      assertThat(meterRegistry.get("employee.single_flight.calls")
+        .tags("flight", "employee.id", "result", "coalesced").counter().count()).isEqualTo(followers);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // JUnit test for getEmployeeById method pinned to primary while another lookup is in flight
+  @DisplayName("JUnit test for getEmployeeById method (pinned lookup does not share a replica leader)")
+  @Test
+  public void givenLookupInFlight_whenGetEmployeeByIdPinnedToPrimary_thenQueryOwnResult() throws Exception {
+    // given - precondition or setup
+    // 先に始まった読み込み（レプリカ）は更新前の行を返し、プライマリに固定された読み込みは更新後の行を返す
+    Employee stale = employee.toBuilder().version(1).build();
+    Employee current = employee.toBuilder().version(2).build();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+      if (ReadWriteRoutingDataSource.isPinnedToPrimary()) {
+        return Optional.of(current);
+      }
+      loading.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return Optional.of(stale);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<Optional<Employee>> leader = executor.submit(() -> employeeService.getEmployeeById(1L));
+      assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+      // when - action or the behaviour
+      Future<Optional<Employee>> pinned = executor.submit(() -> {
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+          return employeeService.getEmployeeById(1L);
+        } finally {
+          ReadWriteRoutingDataSource.unpin();
+        }
+      });
+
+      // then - verify the output
+      // leaderの完了を待たずに、自身の読み込みの結果を返す
+      assertThat(pinned.get(5, TimeUnit.SECONDS)).containsSame(current);
+      release.countDown();
+      assertThat(leader.get(5, TimeUnit.SECONDS)).containsSame(stale);
+      verify(employeeRepository, times(2)).findById(1L);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  // JUnit test for getEmployeeByEmail method
+  @DisplayName("JUnit test for getEmployeeByEmail method")
+  @Test
+  public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() {
+    // given - precondition or setup
+    given(employeeRepository.findByEmail("ramesh@gmail.com")).willReturn(Optional.of(employee));
+
+    // when - action or the behaviour
+    Optional<Employee> result = employeeService.getEmployeeByEmail("ramesh@gmail.com");
+
+    // then - verify the output
+    assertThat(result).containsSame(employee);
+  }
+
+  // JUnit test for getEmployeesByName method
+  @DisplayName("JUnit test for getEmployeesByName method")
+  @Test
+  public void givenFirstNameAndLastName_whenGetEmployeesByName_thenReturnEmployeesList() {
+    // given - precondition or setup
+    given(employeeRepository.findByLastNameAndFirstName("Fadatare", "Ramesh")).willReturn(List.of(employee));
+
+    // when - action or the behaviour
+    List<Employee> employeeList = employeeService.getEmployeesByName("Ramesh", "Fadatare");
+
+    // then - verify the output
+    assertThat(employeeList).containsExactly(employee);
+  }
+
   // JUnit test for updateEmployee method
   @DisplayName("JUnit test for updateEmployee method")
   @Test
   public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
     // given - precondition or setup
     // スタブを使用して返却する値を指定する
-    given(employeeRepository.save(employee)).willReturn(employee);
+    given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
     employee.setEmail("ram@gmail.com");
     employee.setFirstName("Ram");
 
@@ -165,7 +582,67 @@ public class EmployeeServiceTests {
     assertThat(updatedEmployee.getEmail()).isEqualTo("ram@gmail.com");
     assertThat(updatedEmployee.getFirstName()).isEqualTo("Ram");
     assertThat(updatedEmployee.getLastName()).isEqualTo("Fadatare");
+    verify(outbox, times(1)).recordSaved(EmployeeOutboxEvent.Type.UPDATED, List.of(employee));
+
+  }
+
+  // JUnit test for patch employee method
+  @DisplayName("JUnit test for patch employee method")
+  @Test
+  public void givenEmployeeChanges_whenPatchEmployee_thenUpdateWithoutSelect() {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee changes = Employee.builder()
+      .firstName("Ram")
+      .build();
+    given(employeeRepository.updatePartially(eq(employeeId), isNull(), eq("Ram"), isNull(), isNull(), any(Instant.class))).willReturn(1);
+
+    // when - action or the behaviour
+    boolean patched = employeeService.patchEmployee(employeeId, null, changes);
+
+    // then - verify the output
+    assertThat(patched).isTrue();
+    verify(employeeRepository, never()).findById(employeeId);
+    verify(employeeRepository, times(1)).evictFromCache(List.of(employeeId));
+  }
 
+  // JUnit test for patch employee method with invalid id
+  @DisplayName("JUnit test for patch employee method with invalid id")
+  @Test
+  public void givenInvalidEmployeeId_whenPatchEmployee_thenReturnFalse() {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee changes = Employee.builder()
+      .firstName("Ram")
+      .build();
+    given(employeeRepository.updatePartially(eq(employeeId), isNull(), eq("Ram"), isNull(), isNull(), any(Instant.class))).willReturn(0);
+
+    // when - action or the behaviour
+    boolean patched = employeeService.patchEmployee(employeeId, null, changes);
+
+    // then - verify the output
+    assertThat(patched).isFalse();
+  }
+
+  // JUnit test for patch employee method with stale version
+  @DisplayName("JUnit test for patch employee method with stale version")
+  @Test
+  public void givenStaleVersion_whenPatchEmployee_thenThrowsException() {
+    // given - precondition or setup
+    long employeeId = 1L;
+    Employee changes = Employee.builder()
+      .firstName("Ram")
+      .build();
+    given(employeeRepository.updatePartially(eq(employeeId), eq(1L), eq("Ram"), isNull(), isNull(), any(Instant.class))).willReturn(0);
+    given(employeeRepository.existsById(employeeId)).willReturn(true);
+
+    // when - action or the behaviour
+    org.junit.jupiter.api.Assertions.assertThrows(ResourceVersionMismatchException.class, () -> {
+      employeeService.patchEmployee(employeeId, 1L, changes);
+    });
+
+    // then - verify the output
+    verify(employeeRepository).existsById(employeeId);
   }
 
   // JUnit test for deleteEmployee method
@@ -174,13 +651,95 @@ public class EmployeeServiceTests {
   public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
     // given - precondition or setup
     Long employeeId = 1L;
-    // voidを返却するメソッドの場合、BDDMockitoクラスのwillDoNothing()メソッドを使用する
-    willDoNothing().given(employeeRepository).deleteById(employeeId);
+    given(employeeRepository.lockExistingIds(List.of(employeeId))).willReturn(List.of(employeeId));
+    given(employeeRepository.deleteAllByIds(List.of(employeeId))).willReturn(1);
 
     // when - action or the behaviour
     employeeService.deleteEmployeeById(employeeId);
 
     // then - verify the output
-    verify(employeeRepository, times(1)).deleteById(employeeId);
+    // SELECTしてからDELETEするdeleteByIdは使用しない
+    verify(employeeRepository, times(1)).deleteAllByIds(List.of(employeeId));
+    verify(employeeRepository, never()).deleteById(employeeId);
+    // 検索索引から削除されるよう、削除したidを通知する
+    verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.deleted(List.of(employeeId)));
+    verify(outbox, times(1)).recordDeleted(List.of(employeeId));
+    verify(employeeRepository, times(1)).evictFromCache(List.of(employeeId));
+  }
+
+  // JUnit test for delete employees method with nonexistent ids
+  @DisplayName("JUnit test for delete employees method with nonexistent ids")
+  @Test
+  public void givenSomeNonexistentIds_whenDeleteEmployees_thenRecordOnlyDeletedIds() {
+    // given - precondition or setup
+    deleteProperties.setChunkSize(2);
+    given(employeeRepository.lockExistingIds(List.of(1L, 2L))).willReturn(List.of(1L));
+    given(employeeRepository.lockExistingIds(List.of(3L))).willReturn(List.of());
+    given(employeeRepository.deleteAllByIds(List.of(1L))).willReturn(1);
+
+    // when - action or the behaviour
+    int deletedCount = employeeService.deleteEmployeesByIds(List.of(1L, 2L, 3L));
+
+    // then - verify the output
+    assertThat(deletedCount).isEqualTo(1);
+    verify(employeeRepository, times(1)).deleteAllByIds(ArgumentMatchers.anyCollection());
+    verify(outbox, times(1)).recordDeleted(ArgumentMatchers.anyCollection());
+    verify(outbox).recordDeleted(List.of(1L));
+    // 削除されなかったチャンクについては通知しない
+    verify(eventPublisher, times(1)).publishEvent(ArgumentMatchers.any(Object.class));
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(List.of(1L)));
+  }
+
+  // JUnit test for delete employees method
+  @DisplayName("JUnit test for delete employees method")
+  @Test
+  public void givenEmployeeIds_whenDeleteEmployees_thenDeleteInChunks() {
+    // given - precondition or setup
+    deleteProperties.setChunkSize(2);
+    given(employeeRepository.lockExistingIds(ArgumentMatchers.anyCollection()))
+      .willAnswer((invocation) -> List.copyOf(invocation.<List<Long>>getArgument(0)));
+    given(employeeRepository.deleteAllByIds(ArgumentMatchers.anyCollection()))
+      .willAnswer((invocation) -> ((List<?>) invocation.getArgument(0)).size());
+
+    // when - action or the behaviour
+    int deletedCount = employeeService.deleteEmployeesByIds(List.of(1L, 2L, 2L, 3L));
+
+    // then - verify the output
+    assertThat(deletedCount).isEqualTo(3);
+    verify(employeeRepository).deleteAllByIds(List.of(1L, 2L));
+    verify(employeeRepository).deleteAllByIds(List.of(3L));
+  }
+
+  // JUnit test for delete employees method with soft delete
+  @DisplayName("JUnit test for delete employees method with soft delete")
+  @Test
+  public void givenSoftDelete_whenDeleteEmployees_thenFlagEmployees() {
+    // given - precondition or setup
+    deleteProperties.setSoftDelete(true);
+    given(employeeRepository.lockExistingIds(List.of(1L, 2L))).willReturn(List.of(1L, 2L));
+    given(employeeRepository.softDeleteAllByIds(eq(List.of(1L, 2L)), any(Instant.class))).willReturn(2);
+
+    // when - action or the behaviour
+    int deletedCount = employeeService.deleteEmployeesByIds(List.of(1L, 2L));
+
+    // then - verify the output
+    assertThat(deletedCount).isEqualTo(2);
+    verify(employeeRepository, never()).deleteAllByIds(ArgumentMatchers.anyCollection());
+  }
+
+  // JUnit test for purge deleted employees method
+  @DisplayName("JUnit test for purge deleted employees method")
+  @Test
+  public void givenSoftDeletedEmployees_whenPurgeDeletedEmployees_thenPurgeInBatches() {
+    // given - precondition or setup
+    deleteProperties.setPurgeBatchSize(2);
+    given(employeeRepository.purgeDeleted(2)).willReturn(2, 2, 1);
+
+    // when - action or the behaviour
+    int purgedCount = employeeService.purgeDeletedEmployees();
+
+    // then - verify the output
+    assertThat(purgedCount).isEqualTo(5);
+    verify(employeeRepository, times(3)).purgeDeleted(2);
   }
 }
@@ -0,0 +1,91 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.service.impl.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  // JUnit test for SingleFlight bounded wait
+  @DisplayName("JUnit test for SingleFlight bounded wait")
+  @Test
+  public void givenSlowLeader_whenWaitExceedsMaxWait_thenFollowerLoadsItself() throws Exception {
+    // given - precondition or setup
+    SingleFlight<Long, String> singleFlight =
+      new SingleFlight<>("test", Duration.ofMillis(50), UnaryOperator.identity(), meterRegistry);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+      loading.countDown();
+      await(release);
+      return "leader";
+    }));
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when - action or the behaviour
+    String result = singleFlight.execute(1L, () -> "follower");
+    release.countDown();
+
+    // then - verify the output
+    assertThat(result).isEqualTo("follower");
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+    assertThat(meterRegistry.get("employee.single_flight.calls")
+      .tags("flight", "test", "result", "timeout").counter().count()).isEqualTo(1);
+  }
+
+  // JUnit test for SingleFlight failure propagation
+  @DisplayName("JUnit test for SingleFlight failure propagation")
+  @Test
+  public void givenFailingLeader_whenExecute_thenFollowerReceivesSameException() throws Exception {
+    // given - precondition or setup
+    SingleFlight<Long, String> singleFlight =
+      new SingleFlight<>("test", Duration.ofSeconds(5), UnaryOperator.identity(), meterRegistry);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      throw new IllegalStateException("database unavailable");
+    }));
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when - action or the behaviour
+    CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+      loads.incrementAndGet();
+      return "follower";
+    }));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (meterRegistry.get("employee.single_flight.waiting").gauge().value() < 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+
+    // then - verify the output
+    assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database unavailable");
+    assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database unavailable");
+    assertThat(loads).hasValue(1);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
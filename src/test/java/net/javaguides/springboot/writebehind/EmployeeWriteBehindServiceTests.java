@@ -0,0 +1,316 @@
+package net.javaguides.springboot.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.EmployeeWriteBehindProperties;
+import net.javaguides.springboot.exception.InvalidEmployeeException;
+import net.javaguides.springboot.exception.WriteBehindQueueFullException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService.State;
+import net.javaguides.springboot.writebehind.EmployeeWriteBehindService.WriteStatus;
+import net.javaguides.springboot.writebehind.EmployeeWriteJournal.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeWriteBehindServiceTests {
+
+  @TempDir
+  Path tempDir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final EmployeeService employeeService = mock(EmployeeService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private EmployeeWriteBehindProperties properties;
+  private EmployeeWriteBehindService writeBehindService;
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    properties = new EmployeeWriteBehindProperties();
+    properties.setJournalFile(tempDir.resolve("journal.jsonl"));
+    properties.setRetryBackoff(Duration.ofMillis(10));
+    employee = Employee.builder()
+      .firstName("Ramesh")
+      .lastName("Fadatare")
+      .email("ramesh@gmail.com")
+      .build();
+    // saveEmployeesは受け取った順に1から採番して返す
+    given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+      List<Employee> employees = invocation.getArgument(0);
+      List<Employee> saved = new ArrayList<>();
+      for (int i = 0; i < employees.size(); i++) {
+        saved.add(employees.get(i).toBuilder().id(i + 1).build());
+      }
+      return saved;
+    });
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    if (writeBehindService != null) {
+      writeBehindService.stop();
+    }
+  }
+
+  // JUnit test for write-behind submit operation
+  @DisplayName("JUnit test for write-behind submit operation")
+  @Test
+  public void givenEmployeeObject_whenSubmit_thenWrittenInBackgroundAndJournalCleared() throws Exception {
+    // given - precondition or setup
+    writeBehindService = start();
+
+    // when - action or the behaviour
+    WriteStatus accepted = writeBehindService.submit(employee);
+
+    // then - verify the output
+    assertThat(accepted.state()).isEqualTo(State.PENDING);
+    awaitTrue(() -> writeBehindService.getStatus(accepted.trackingId()).orElseThrow().state() == State.WRITTEN);
+    assertThat(writeBehindService.getStatus(accepted.trackingId()).orElseThrow().employeeId()).isEqualTo(1L);
+    awaitTrue(() -> properties.getJournalFile().toFile().length() == 0);
+  }
+
+  // JUnit test for write-behind journal replay
+  @DisplayName("JUnit test for write-behind journal replay on startup")
+  @Test
+  public void givenPendingJournalEntries_whenStart_thenReplayOnlyUnfinishedWrites() throws Exception {
+    // given - precondition or setup
+    UUID writtenId = UUID.randomUUID();
+    UUID pendingId = UUID.randomUUID();
+    Employee written = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+    try (EmployeeWriteJournal journal = new EmployeeWriteJournal(properties.getJournalFile(), objectMapper)) {
+      journal.append(List.of(
+        Entry.accepted(writtenId, written),
+        Entry.accepted(pendingId, employee),
+        Entry.written(writtenId, 10L)));
+    }
+    // 書き込み途中で落ちた場合の壊れた行
+    Files.writeString(properties.getJournalFile(), "{\"type\":\"ACC", StandardOpenOption.APPEND);
+
+    // when - action or the behaviour
+    writeBehindService = start();
+
+    // then - verify the output
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Employee>> captor = ArgumentCaptor.forClass(List.class);
+    verify(employeeService, timeout(5000)).saveEmployees(captor.capture());
+    assertThat(captor.getValue()).extracting(Employee::getEmail).containsExactly(employee.getEmail());
+    awaitTrue(() -> writeBehindService.getStatus(pendingId).orElseThrow().state() == State.WRITTEN);
+    assertThat(writeBehindService.getStatus(writtenId)).isEmpty();
+  }
+
+  // JUnit test for write-behind back-pressure
+  @DisplayName("JUnit test for write-behind back-pressure when the queue is full")
+  @Test
+  public void givenFullQueue_whenSubmit_thenThrowsException() throws Exception {
+    // given - precondition or setup
+    properties.setQueueCapacity(1);
+    properties.setOfferTimeout(Duration.ofMillis(50));
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+      writing.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return List.of(employee.toBuilder().id(1).build());
+    });
+    writeBehindService = start();
+    writeBehindService.submit(employee);
+    assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> writeBehindService.submit(employee)).isInstanceOf(WriteBehindQueueFullException.class);
+    release.countDown();
+  }
+
+  // JUnit test for write-behind journal failure after the employees are written
+  @DisplayName("JUnit test for write-behind journal failure after the employees are written")
+  @Test
+  public void givenJournalFailsAfterWrite_whenSubmit_thenWrittenOnceWithoutRetry() throws Exception {
+    // given - precondition or setup
+    // DBへの書き込み後、WRITTEN の記録だけが失敗する
+    EmployeeWriteJournal journal = spy(new EmployeeWriteJournal(properties.getJournalFile(), objectMapper));
+    doThrow(new UncheckedIOException(new IOException("No space left on device"))).when(journal)
+      .append(argThat(entries -> entries.get(0).type() == EmployeeWriteJournal.Type.WRITTEN));
+    writeBehindService = start(journal);
+
+    // when - action or the behaviour
+    WriteStatus accepted = writeBehindService.submit(employee);
+
+    // then - verify the output
+    // コミット済みの登録は再試行せず、重複としてFAILEDにもしない
+    awaitTrue(() -> writeBehindService.getStatus(accepted.trackingId()).orElseThrow().state() == State.WRITTEN);
+    verify(employeeService, after(200).times(1)).saveEmployees(anyList());
+    verify(employeeService, never()).saveEmployee(any(Employee.class));
+    assertThat(writeBehindService.getStatus(accepted.trackingId()).orElseThrow().state()).isEqualTo(State.WRITTEN);
+  }
+
+  // JUnit test for write-behind journal group commit
+  @DisplayName("JUnit test for write-behind journal group commit of concurrent submits")
+  @Test
+  public void givenConcurrentSubmits_whenSubmit_thenJournalSyncedTogether() throws Exception {
+    // given - precondition or setup
+    // 最初の同期を遅らせ、その間に受け付けた登録が次の1回の同期にまとめられることを確認する
+    EmployeeWriteJournal journal = spy(new EmployeeWriteJournal(properties.getJournalFile(), objectMapper));
+    AtomicBoolean first = new AtomicBoolean(true);
+    doAnswer(invocation -> {
+      if (first.getAndSet(false)) {
+        Thread.sleep(200);
+      }
+      return invocation.callRealMethod();
+    }).when(journal).syncAppended(any(Duration.class));
+    writeBehindService = start(journal);
+    int submits = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(submits);
+
+    // when - action or the behaviour
+    List<Future<WriteStatus>> accepted = new ArrayList<>();
+    for (int i = 0; i < submits; i++) {
+      Employee submitted = employee.toBuilder().email("employee" + i + "@gmail.com").build();
+      accepted.add(executor.submit(() -> writeBehindService.submit(submitted)));
+    }
+    for (Future<WriteStatus> future : accepted) {
+      assertThat(future.get(5, TimeUnit.SECONDS).state()).isEqualTo(State.PENDING);
+    }
+    executor.shutdown();
+
+    // then - verify the output
+    // 受付は同期を待ってから応答するが、fsyncは受付ごとではなくまとめて行われる
+    assertThat(meterRegistry.counter("employee.write_behind.journal_syncs").count()).isLessThan(submits);
+  }
+
+  // JUnit test for write-behind non-transient failure
+  @DisplayName("JUnit test for write-behind non-transient failure not stalling the queue")
+  @Test
+  public void givenIntegrityViolation_whenSubmit_thenFailedAndNextEntriesWritten() throws Exception {
+    // given - precondition or setup
+    // 重複以外の制約違反（再試行しても成功しない）を含む登録はまとめても1件ずつでも失敗する
+    Employee rejected = employee.toBuilder().email("rejected@gmail.com").build();
+    DataIntegrityViolationException violation = new DataIntegrityViolationException("value too long for column");
+    given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+      List<Employee> employees = invocation.getArgument(0);
+      if (employees.stream().anyMatch(e -> e.getEmail().equals(rejected.getEmail()))) {
+        throw violation;
+      }
+      return List.of(employees.get(0).toBuilder().id(1).build());
+    });
+    given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+      Employee saved = invocation.getArgument(0);
+      if (saved.getEmail().equals(rejected.getEmail())) {
+        throw violation;
+      }
+      return saved.toBuilder().id(2).build();
+    });
+    writeBehindService = start();
+
+    // when - action or the behaviour
+    WriteStatus failed = writeBehindService.submit(rejected);
+    WriteStatus next = writeBehindService.submit(employee);
+
+    // then - verify the output
+    awaitTrue(() -> writeBehindService.getStatus(failed.trackingId()).orElseThrow().state() == State.FAILED);
+    awaitTrue(() -> writeBehindService.getStatus(next.trackingId()).orElseThrow().state() == State.WRITTEN);
+    assertThat(writeBehindService.getStatus(failed.trackingId()).orElseThrow().error()).contains("value too long");
+    // 失敗もジャーナルに記録され、再起動時に再実行されない
+    awaitTrue(() -> properties.getJournalFile().toFile().length() == 0);
+  }
+
+  // JUnit test for write-behind transient failure
+  @DisplayName("JUnit test for write-behind transient failure retried")
+  @Test
+  public void givenDatabaseUnavailable_whenSubmit_thenRetriedUntilWritten() throws Exception {
+    // given - precondition or setup
+    AtomicInteger attempts = new AtomicInteger();
+    given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new CannotGetJdbcConnectionException("Connection refused");
+      }
+      List<Employee> employees = invocation.getArgument(0);
+      return List.of(employees.get(0).toBuilder().id(1).build());
+    });
+    writeBehindService = start();
+
+    // when - action or the behaviour
+    WriteStatus accepted = writeBehindService.submit(employee);
+
+    // then - verify the output
+    awaitTrue(() -> writeBehindService.getStatus(accepted.trackingId()).orElseThrow().state() == State.WRITTEN);
+    assertThat(attempts.get()).isEqualTo(3);
+    verify(employeeService, never()).saveEmployee(any(Employee.class));
+  }
+
+  // JUnit test for write-behind submit validation
+  @DisplayName("JUnit test for write-behind submit rejecting invalid employee")
+  @Test
+  public void givenEmployeeWithoutLastName_whenSubmit_thenThrowsExceptionWithoutQueueing() throws Exception {
+    // given - precondition or setup
+    writeBehindService = start();
+    Employee invalid = employee.toBuilder().lastName(null).build();
+
+    // when - action or the behaviour
+    // then - verify the output
+    assertThatThrownBy(() -> writeBehindService.submit(invalid)).isInstanceOf(InvalidEmployeeException.class);
+    assertThatThrownBy(() -> writeBehindService.submit(employee.toBuilder().email("a".repeat(256)).build()))
+      .isInstanceOf(InvalidEmployeeException.class);
+    verify(employeeService, after(200).never()).saveEmployees(anyList());
+    assertThat(properties.getJournalFile().toFile().length()).isZero();
+  }
+
+  private EmployeeWriteBehindService start() {
+    return start(new EmployeeWriteJournal(properties.getJournalFile(), objectMapper));
+  }
+
+  private EmployeeWriteBehindService start(EmployeeWriteJournal journal) {
+    EmployeeWriteBehindService service =
+      new EmployeeWriteBehindService(employeeService, journal, properties, meterRegistry);
+    service.start();
+    return service;
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+}